@@ -0,0 +1,74 @@
+package com.ticketapp.api_gateway.controller;
+
+import com.ticketapp.api_gateway.filter.WaitingRoomFilter;
+import com.ticketapp.api_gateway.service.WaitingRoom;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.UUID;
+
+// Served by the gateway itself, not routed to a service
+@RestController
+@RequestMapping("/waiting-room")
+public class WaitingRoomController {
+
+    private final WaitingRoom waitingRoom;
+
+    public WaitingRoomController(WaitingRoom waitingRoom) {
+        this.waitingRoom = waitingRoom;
+    }
+
+    // ✅ Join the line for an event; the returned token goes in X-Queue-Token on booking requests
+    // of the same user (X-User-Id) and is good for one booking
+    @PostMapping("/{eventId}/join")
+    public ResponseEntity<?> join(@PathVariable UUID eventId,
+                                  @RequestHeader(WaitingRoomFilter.USER_HEADER) UUID userId,
+                                  ServerHttpRequest request) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        String client = remote == null || remote.getAddress() == null ? "unknown" : remote.getAddress().getHostAddress();
+        if (!waitingRoom.allowJoin(client)) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "60")
+                    .body("Too many attempts to join, please wait a minute");
+        }
+        try {
+            return ResponseEntity.ok(waitingRoom.join(eventId, userId));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    // ✅ Current position (poll this until admitted = true)
+    @GetMapping("/status")
+    public ResponseEntity<?> status(@RequestHeader("X-Queue-Token") String token) {
+        try {
+            return ResponseEntity.ok(waitingRoom.status(token));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(401).body(ex.getMessage());
+        }
+    }
+
+    // ✅ Admin: open a waiting room (or change its admission rate) and close it
+    @PutMapping("/admin/{eventId}")
+    public ResponseEntity<?> open(@PathVariable UUID eventId, @RequestParam double ratePerSecond) {
+        try {
+            return ResponseEntity.ok(waitingRoom.open(eventId, ratePerSecond));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    @DeleteMapping("/admin/{eventId}")
+    public ResponseEntity<Void> close(@PathVariable UUID eventId) {
+        waitingRoom.close(eventId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/admin/{eventId}")
+    public ResponseEntity<Map<String, Object>> stats(@PathVariable UUID eventId) {
+        return ResponseEntity.ok(waitingRoom.stats(eventId));
+    }
+}
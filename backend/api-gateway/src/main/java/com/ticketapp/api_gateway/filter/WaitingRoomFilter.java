@@ -0,0 +1,162 @@
+package com.ticketapp.api_gateway.filter;
+
+import com.ticketapp.api_gateway.service.WaitingRoom;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.RequestPath;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Rejects booking requests for queued events that don't carry an admitted queue token, before
+ * they reach booking-service. The event is taken from the X-Event-Id header (reading the body
+ * at the edge would cost more than the check); booking-service refuses bookings whose body
+ * names a different event, so the header cannot be used to slip past the line. Cart bookings list
+ * all their events in the header and carry one admitted token per queued event.
+ *
+ * Tokens are bound to the user in X-User-Id (booking-service likewise refuses a body for another
+ * user) and spent by the booking: each one is claimed for the request, released again if the
+ * request fails and recorded as spent if it succeeds.
+ */
+@Component
+public class WaitingRoomFilter implements GlobalFilter, Ordered {
+
+    public static final String EVENT_HEADER = "X-Event-Id";
+    public static final String TOKEN_HEADER = "X-Queue-Token";
+    public static final String USER_HEADER = "X-User-Id";
+
+    // Requests that take tickets, as path segments; matched at the end so discovery-locator paths
+    // (/booking-service/bookings/book) are guarded too
+    private static final List<List<String>> GUARDED_PATHS = List.of(
+            List.of("bookings", "book"), List.of("bookings", "cart"), List.of("bookings", "checkout"));
+
+    private final WaitingRoom waitingRoom;
+
+    public WaitingRoomFilter(WaitingRoom waitingRoom) {
+        this.waitingRoom = waitingRoom;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!waitingRoom.hasQueues()
+                || exchange.getRequest().getMethod() != HttpMethod.POST
+                || !isGuarded(exchange.getRequest().getPath())) {
+            return chain.filter(exchange);
+        }
+
+        List<UUID> eventIds = new ArrayList<>();
+        try {
+            for (String value : headerValues(exchange, EVENT_HEADER)) {
+                eventIds.add(UUID.fromString(value));
+            }
+        } catch (IllegalArgumentException ex) {
+            return reject(exchange, HttpStatus.BAD_REQUEST, "X-Event-Id must list event IDs");
+        }
+        if (eventIds.isEmpty()) {
+            return reject(exchange, HttpStatus.BAD_REQUEST, "X-Event-Id header is required");
+        }
+        if (eventIds.stream().noneMatch(waitingRoom::isQueued)) {
+            return chain.filter(exchange);
+        }
+
+        UUID userId;
+        try {
+            userId = UUID.fromString(exchange.getRequest().getHeaders().getFirst(USER_HEADER));
+        } catch (IllegalArgumentException | NullPointerException ex) {
+            return reject(exchange, HttpStatus.BAD_REQUEST, "X-User-Id header is required for queued events");
+        }
+
+        List<String> tokens = headerValues(exchange, TOKEN_HEADER);
+        List<WaitingRoom.QueueToken> claimed = new ArrayList<>();
+        for (UUID eventId : eventIds) {
+            if (!waitingRoom.isQueued(eventId)) continue;
+            WaitingRoom.QueueToken t = null;
+            for (int i = 0; i < tokens.size() && t == null; i++) {
+                t = waitingRoom.claim(tokens.get(i), eventId, userId);
+            }
+            if (t == null) {
+                claimed.forEach(waitingRoom::release);
+                exchange.getResponse().getHeaders().set("Retry-After", "5");
+                return reject(exchange, HttpStatus.TOO_MANY_REQUESTS,
+                        "Waiting room is active for this event, join at /waiting-room/" + eventId
+                                + "/join (an admitted place is good for one booking)");
+            }
+            claimed.add(t);
+        }
+
+        // Spent only by a booking that went through
+        return chain.filter(exchange).doFinally(signal -> {
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            if (status == null || !status.is2xxSuccessful()) {
+                claimed.forEach(waitingRoom::release);
+            } else {
+                claimed.forEach(waitingRoom::spend);
+            }
+        });
+    }
+
+    // Header values, split on commas (one header with a list or repeated headers)
+    private static List<String> headerValues(ServerWebExchange exchange, String name) {
+        List<String> values = new ArrayList<>();
+        for (String header : exchange.getRequest().getHeaders().getOrEmpty(name)) {
+            for (String value : header.split(",")) {
+                if (!value.isBlank()) values.add(value.trim());
+            }
+        }
+        return values;
+    }
+
+    // Matched the way booking-service will route it: decoded segments without matrix parameters,
+    // so /bookings/book;x=1 and /bookings/%62ook are guarded as well
+    private static boolean isGuarded(RequestPath path) {
+        List<String> segments = segments(path.pathWithinApplication());
+        for (List<String> guarded : GUARDED_PATHS) {
+            int from = segments.size() - guarded.size();
+            if (from >= 0 && segments.subList(from, segments.size()).equals(guarded)) return true;
+        }
+        return false;
+    }
+
+    // Empty segments (//, trailing /) are dropped and dot segments resolved, as the servlet container does
+    private static List<String> segments(PathContainer path) {
+        List<String> segments = new ArrayList<>();
+        for (PathContainer.Element element : path.elements()) {
+            if (!(element instanceof PathContainer.PathSegment segment)) continue;
+            String value = segment.valueToMatch();
+            if (value.isEmpty() || value.equals(".")) continue;
+            if (value.equals("..")) {
+                if (!segments.isEmpty()) segments.remove(segments.size() - 1);
+                continue;
+            }
+            segments.add(value);
+        }
+        return segments;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 100;
+    }
+
+    private static Mono<Void> reject(ServerWebExchange exchange, HttpStatus status, String message) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+        DataBuffer body = response.bufferFactory().wrap(message.getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(body));
+    }
+}
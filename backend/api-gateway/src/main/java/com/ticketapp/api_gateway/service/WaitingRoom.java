@@ -0,0 +1,350 @@
+package com.ticketapp.api_gateway.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Virtual waiting room for designated events.
+ *
+ * Each queued event is just two numbers: how many queue tickets were handed out ({@code issued})
+ * and how far the admission line has moved ({@code admitted}, advanced by {@code ratePerSecond}
+ * on every tick). A user's token carries their place in line, signed with HMAC, so checking a
+ * booking request is a signature check and one comparison. The counters are snapshotted to a
+ * local file and reloaded on restart, so people keep their place.
+ *
+ * A token names the user who joined and only admits booking requests of that user. Once the
+ * line reaches it, it is good for one booking: the gateway claims it while the request runs
+ * and keeps it spent after a successful response. Claimed and spent tokens are remembered until
+ * they would expire anyway: they are part of the snapshot, and each spent token is also appended
+ * to a log next to it right away, so a restart does not make them usable again. A token whose
+ * request was cut off by the restart counts as spent, since its booking may have gone through.
+ * Like the counters, this is local to the instance. Joining is rate limited per client address.
+ */
+@Service
+public class WaitingRoom {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitingRoom.class);
+
+    private static final String HMAC = "HmacSHA256";
+
+    // Queue state of one event
+    private static final class EventQueue {
+        final AtomicLong issued;
+        volatile double admitted;
+        volatile double ratePerSecond;
+
+        EventQueue(long issued, double admitted, double ratePerSecond) {
+            this.issued = new AtomicLong(issued);
+            this.admitted = admitted;
+            this.ratePerSecond = ratePerSecond;
+        }
+    }
+
+    /** Decoded, signature-checked token. */
+    public record QueueToken(UUID eventId, long seq, long issuedAt, UUID userId) {
+
+        String key() {
+            return eventId + ":" + seq;
+        }
+    }
+
+    // Minimum HMAC key length, so a placeholder or short password is refused at startup
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final ConcurrentHashMap<UUID, EventQueue> queues = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+    private final ThreadLocal<Mac> macs;
+    // Tokens claimed by a booking request in flight or spent by a successful one -> expiry (epoch s)
+    private final ConcurrentHashMap<String, Long> claimed = new ConcurrentHashMap<>();
+    // Joins per client address in the current minute; reset by the admission tick
+    private final ConcurrentHashMap<String, AtomicLong> joins = new ConcurrentHashMap<>();
+    private long joinWindow;
+    private long lastTickNanos = System.nanoTime();
+
+    @Value("${waiting-room.tick-ms:200}")
+    private long tickMs;
+
+    @Value("${waiting-room.token-ttl-minutes:120}")
+    private long tokenTtlMinutes;
+
+    @Value("${waiting-room.snapshot-path:/tmp/api-gateway/waiting-room.snapshot}")
+    private String snapshotPath;
+
+    @Value("${waiting-room.snapshot-interval-seconds:5}")
+    private long snapshotIntervalSeconds;
+
+    @Value("${waiting-room.joins-per-minute:10}")
+    private long joinsPerMinute;
+
+    public WaitingRoom(@Value("${waiting-room.secret:}") String secret) {
+        if (secret.getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("waiting-room.secret (WAITING_ROOM_SECRET) must be set to a random value of at least "
+                    + MIN_SECRET_BYTES + " bytes");
+        }
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(HMAC);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException("HMAC not available", ex);
+            }
+        });
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        loadSnapshot();
+        timer.scheduleAtFixedRate(this::admit, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        timer.scheduleWithFixedDelay(this::snapshotQuietly, snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        timer.shutdownNow();
+        snapshot();
+    }
+
+    public boolean isQueued(UUID eventId) {
+        return queues.containsKey(eventId);
+    }
+
+    public boolean hasQueues() {
+        return !queues.isEmpty();
+    }
+
+    // ✅ Open (or re-rate) the waiting room of an event
+    public Map<String, Object> open(UUID eventId, double ratePerSecond) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("ratePerSecond must be positive");
+        }
+        queues.compute(eventId, (id, q) -> {
+            if (q == null) return new EventQueue(0, 0, ratePerSecond);
+            q.ratePerSecond = ratePerSecond;
+            return q;
+        });
+        return stats(eventId);
+    }
+
+    public void close(UUID eventId) {
+        queues.remove(eventId);
+    }
+
+    /** Returns false when this client address has joined too often in the current minute. */
+    public boolean allowJoin(String clientAddress) {
+        return joins.computeIfAbsent(clientAddress, k -> new AtomicLong()).incrementAndGet() <= joinsPerMinute;
+    }
+
+    // ✅ Take a place in line and get the signed token for it, valid for this user only
+    public Map<String, Object> join(UUID eventId, UUID userId) {
+        EventQueue q = queues.get(eventId);
+        if (q == null) {
+            throw new IllegalArgumentException("No waiting room for event ID: " + eventId);
+        }
+        long seq = q.issued.incrementAndGet();
+        String token = sign(eventId, seq, Instant.now().getEpochSecond(), userId);
+        Map<String, Object> status = status(q, eventId, seq);
+        status.put("token", token);
+        return status;
+    }
+
+    public Map<String, Object> status(String token) {
+        QueueToken t = verify(token);
+        if (t == null) {
+            throw new IllegalArgumentException("Invalid or expired queue token");
+        }
+        EventQueue q = queues.get(t.eventId());
+        if (q == null) {
+            // Waiting room was closed: everybody is in
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("eventId", t.eventId());
+            m.put("admitted", true);
+            m.put("position", 0);
+            return m;
+        }
+        return status(q, t.eventId(), t.seq());
+    }
+
+    /**
+     * Edge check for booking requests: valid signature, right event and user, the line has
+     * reached it, and it is not claimed by another request or already spent. Returns the claimed
+     * token, or null; a claimed token must be {@link #release released} if the booking fails.
+     */
+    public QueueToken claim(String token, UUID eventId, UUID userId) {
+        QueueToken t = verify(token);
+        if (t == null || !t.eventId().equals(eventId) || !t.userId().equals(userId)) return null;
+        EventQueue q = queues.get(eventId);
+        if (q != null && t.seq() > (long) q.admitted) return null;
+        long expiresAt = t.issuedAt() + TimeUnit.MINUTES.toSeconds(tokenTtlMinutes);
+        return claimed.putIfAbsent(t.key(), expiresAt) == null ? t : null;
+    }
+
+    // The booking did not go through, so the token may be used again
+    public void release(QueueToken t) {
+        claimed.remove(t.key());
+    }
+
+    // The booking went through: the token stays claimed, and is logged so it stays spent after a restart
+    public void spend(QueueToken t) {
+        Long expiresAt = claimed.get(t.key());
+        if (expiresAt == null) return;
+        try {
+            appendSpent(t.key(), expiresAt);
+        } catch (IOException ex) {
+            log.error("Waiting room spent-token log failed, token {} is only spent until restart", t.key(), ex);
+        }
+    }
+
+    public Map<String, Object> stats(UUID eventId) {
+        EventQueue q = queues.get(eventId);
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("eventId", eventId);
+        m.put("open", q != null);
+        if (q != null) {
+            m.put("issued", q.issued.get());
+            m.put("admitted", (long) q.admitted);
+            m.put("ratePerSecond", q.ratePerSecond);
+        }
+        return m;
+    }
+
+    private Map<String, Object> status(EventQueue q, UUID eventId, long seq) {
+        long position = Math.max(seq - (long) q.admitted, 0);
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("eventId", eventId);
+        m.put("admitted", position == 0);
+        m.put("position", position);
+        m.put("estimatedWaitSeconds", (long) Math.ceil(position / q.ratePerSecond));
+        return m;
+    }
+
+    // Move every line forward by rate * elapsed, never past the last issued place
+    private void admit() {
+        long now = System.nanoTime();
+        double seconds = (now - lastTickNanos) / 1e9;
+        lastTickNanos = now;
+        for (EventQueue q : queues.values()) {
+            q.admitted = Math.min(q.admitted + q.ratePerSecond * seconds, q.issued.get());
+        }
+        // Expired tokens are refused by verify, no need to remember them as spent
+        long epoch = Instant.now().getEpochSecond();
+        claimed.values().removeIf(expiresAt -> expiresAt < epoch);
+        if (epoch / 60 != joinWindow) {
+            joinWindow = epoch / 60;
+            joins.clear();
+        }
+    }
+
+    // Token: base64url("eventId:seq:issuedAt:userId") + "." + base64url(hmac)
+    private String sign(UUID eventId, long seq, long issuedAt, UUID userId) {
+        byte[] payload = (eventId + ":" + seq + ":" + issuedAt + ":" + userId).getBytes(StandardCharsets.US_ASCII);
+        Base64.Encoder b64 = Base64.getUrlEncoder().withoutPadding();
+        return b64.encodeToString(payload) + "." + b64.encodeToString(macs.get().doFinal(payload));
+    }
+
+    // Returns null for anything malformed, forged or expired
+    private QueueToken verify(String token) {
+        if (token == null) return null;
+        int dot = token.indexOf('.');
+        if (dot < 0) return null;
+        try {
+            Base64.Decoder b64 = Base64.getUrlDecoder();
+            byte[] payload = b64.decode(token.substring(0, dot));
+            byte[] signature = b64.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(macs.get().doFinal(payload), signature)) return null;
+
+            String[] parts = new String(payload, StandardCharsets.US_ASCII).split(":");
+            QueueToken t = new QueueToken(UUID.fromString(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]),
+                    UUID.fromString(parts[3]));
+            long age = Instant.now().getEpochSecond() - t.issuedAt();
+            return age <= TimeUnit.MINUTES.toSeconds(tokenTtlMinutes) ? t : null;
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ex) {
+            return null;
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException ex) {
+            log.error("Waiting room snapshot failed", ex);
+        }
+    }
+
+    // One line per event: eventId,issued,admitted,ratePerSecond, then one per claimed token:
+    // eventId:seq,expiresAt; written to a temp file and moved, after which the spent log is covered
+    private synchronized void snapshot() throws IOException {
+        Path path = Path.of(snapshotPath);
+        Files.createDirectories(path.getParent());
+        List<String> lines = new ArrayList<>();
+        queues.forEach((id, q) -> lines.add(id + "," + q.issued.get() + "," + q.admitted + "," + q.ratePerSecond));
+        claimed.forEach((key, expiresAt) -> lines.add(key + "," + expiresAt));
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(tmp, lines, StandardCharsets.US_ASCII);
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(spentLogPath());
+    }
+
+    // Same monitor as snapshot(), so a line is never appended to a log that is being dropped
+    private synchronized void appendSpent(String key, long expiresAt) throws IOException {
+        Path spentLog = spentLogPath();
+        Files.createDirectories(spentLog.getParent());
+        Files.writeString(spentLog, key + "," + expiresAt + "\n", StandardCharsets.US_ASCII,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private Path spentLogPath() {
+        Path path = Path.of(snapshotPath);
+        return path.resolveSibling(path.getFileName() + ".spent");
+    }
+
+    private void loadSnapshot() throws IOException {
+        Path path = Path.of(snapshotPath);
+        if (Files.exists(path)) {
+            for (String line : Files.readAllLines(path, StandardCharsets.US_ASCII)) {
+                String[] f = line.split(",");
+                if (f.length == 4) {
+                    queues.put(UUID.fromString(f[0]),
+                            new EventQueue(Long.parseLong(f[1]), Double.parseDouble(f[2]), Double.parseDouble(f[3])));
+                } else if (f.length == 2) {
+                    claimed.put(f[0], Long.parseLong(f[1]));
+                }
+            }
+        }
+        Path spentLog = spentLogPath();
+        if (Files.exists(spentLog)) {
+            for (String line : Files.readAllLines(spentLog, StandardCharsets.US_ASCII)) {
+                String[] f = line.split(",");
+                if (f.length == 2) claimed.put(f[0], Long.parseLong(f[1]));
+            }
+        }
+    }
+}
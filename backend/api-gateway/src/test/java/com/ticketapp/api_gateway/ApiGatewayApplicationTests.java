@@ -3,7 +3,7 @@ package com.ticketapp.api_gateway;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "waiting-room.secret=context-test-secret-0123456789abcdef")
 class ApiGatewayApplicationTests {
 
 	@Test
@@ -0,0 +1,138 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop load test of the booking flow, to compare platform and virtual threads.
+ *
+ * Each client books one ticket (POST /bookings/book, which calls event-service) and cancels it
+ * again, so inventory never runs out. Only the booking call is timed. Run it once against the
+ * services started with VIRTUAL_THREADS=false and once with VIRTUAL_THREADS=true, same settings:
+ *
+ *   java benchmarks/BookingFlowBenchmark.java --event <eventId> --user <userId> \
+ *        --url http://localhost:8080 --clients 500 --seconds 60 --warmup 10 --label virtual
+ *
+ * The event must have enough tickets for "clients" concurrent holds and no waiting room.
+ * Prints one line: label, requests, errors, throughput (req/s), p50, p99, max (ms).
+ */
+public class BookingFlowBenchmark {
+
+    // Latencies (ns) of one client, measured after warmup
+    private static final class Samples {
+        long[] values = new long[1024];
+        int count;
+
+        void add(long nanos) {
+            if (count == values.length) values = Arrays.copyOf(values, count * 2);
+            values[count++] = nanos;
+        }
+    }
+
+    private static final Pattern BOOKING_ID = Pattern.compile("\"bookingId\"\\s*:\\s*\"([0-9a-f-]{36})\"");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parse(args);
+        String url = opts.getOrDefault("url", "http://localhost:8080");
+        UUID eventId = UUID.fromString(required(opts, "event"));
+        UUID userId = UUID.fromString(required(opts, "user"));
+        int clients = Integer.parseInt(opts.getOrDefault("clients", "200"));
+        long seconds = Long.parseLong(opts.getOrDefault("seconds", "60"));
+        long warmup = Long.parseLong(opts.getOrDefault("warmup", "10"));
+        String label = opts.getOrDefault("label", "run");
+
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        String body = "{\"userId\":\"" + userId + "\",\"eventId\":\"" + eventId + "\",\"quantity\":1}";
+
+        long start = System.nanoTime();
+        long measureFrom = start + Duration.ofSeconds(warmup).toNanos();
+        long end = measureFrom + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<Samples> perClient = new ArrayList<>();
+
+        // The load generator itself runs on virtual threads so it is never the bottleneck
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                Samples samples = new Samples();
+                perClient.add(samples);
+                pool.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        long t0 = System.nanoTime();
+                        String bookingId = null;
+                        try {
+                            HttpResponse<String> res = http.send(HttpRequest.newBuilder(URI.create(url + "/bookings/book"))
+                                    .timeout(Duration.ofSeconds(30))
+                                    .header("Content-Type", "application/json")
+                                    .header("X-Event-Id", eventId.toString())
+                                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                                    .build(), HttpResponse.BodyHandlers.ofString());
+                            long t1 = System.nanoTime();
+                            if (res.statusCode() / 100 != 2) {
+                                if (t0 >= measureFrom) errors.incrementAndGet();
+                                continue;
+                            }
+                            if (t0 >= measureFrom) samples.add(t1 - t0);
+                            Matcher m = BOOKING_ID.matcher(res.body());
+                            if (m.find()) bookingId = m.group(1);
+                        } catch (Exception e) {
+                            if (t0 >= measureFrom) errors.incrementAndGet();
+                        }
+                        if (bookingId != null) {
+                            try {
+                                http.send(HttpRequest.newBuilder(URI.create(url + "/bookings/" + bookingId + "/cancel"))
+                                        .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                                        .build(), HttpResponse.BodyHandlers.discarding());
+                            } catch (Exception ignored) {
+                                // An uncancelled hold expires on its own
+                            }
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+
+        long[] all = perClient.stream()
+                .flatMapToLong(s -> Arrays.stream(s.values, 0, s.count))
+                .sorted()
+                .toArray();
+        System.out.printf("%s requests=%d errors=%d throughput=%.1f/s p50=%.1fms p99=%.1fms max=%.1fms%n",
+                label, all.length, errors.get(), all.length / (double) seconds,
+                percentile(all, 0.50), percentile(all, 0.99), all.length == 0 ? 0 : all[all.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int i = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(i, 0)] / 1e6;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            opts.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return opts;
+    }
+
+    private static String required(Map<String, String> opts, String name) {
+        String value = opts.get(name);
+        if (value == null) throw new IllegalArgumentException("--" + name + " is required");
+        return value;
+    }
+}
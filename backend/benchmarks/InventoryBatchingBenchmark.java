@@ -0,0 +1,148 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of ticket updates on one event with and without group commit (InventoryBatcher).
+ *
+ * Needs two event-service instances on the same database, one started with batching off:
+ *
+ *   java -jar event-service.jar --server.port=8093 --events.inventory.batch.enabled=false
+ *
+ *   java benchmarks/InventoryBatchingBenchmark.java --event <eventId> \
+ *        --unbatched http://localhost:8093 --batched http://localhost:8083 \
+ *        --clients 200 --seconds 30 --warmup 5
+ *
+ * Each client reserves one ticket (PATCH /events/{id}/tickets?ticketsSold=1) and releases it
+ * again, so inventory never runs out; both calls are timed. The phases run one after the other
+ * on the same event, which must not be in hot mode and needs at least "clients" free tickets.
+ * Prints one line per phase (updates, errors, throughput, p50, p99, max) and the speedup.
+ */
+public class InventoryBatchingBenchmark {
+
+    // Latencies (ns) of one client, measured after warmup
+    private static final class Samples {
+        long[] values = new long[1024];
+        int count;
+
+        void add(long nanos) {
+            if (count == values.length) values = Arrays.copyOf(values, count * 2);
+            values[count++] = nanos;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parse(args);
+        UUID eventId = UUID.fromString(required(opts, "event"));
+        String unbatched = required(opts, "unbatched");
+        String batched = required(opts, "batched");
+        int clients = Integer.parseInt(opts.getOrDefault("clients", "200"));
+        long seconds = Long.parseLong(opts.getOrDefault("seconds", "30"));
+        long warmup = Long.parseLong(opts.getOrDefault("warmup", "5"));
+
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        double before = run(http, "unbatched", unbatched, eventId, clients, seconds, warmup);
+        double after = run(http, "batched", batched, eventId, clients, seconds, warmup);
+        System.out.printf("speedup=%.2fx%n", before == 0 ? 0 : after / before);
+    }
+
+    // One phase; returns the throughput of successful updates per second
+    private static double run(HttpClient http, String label, String url, UUID eventId,
+                              int clients, long seconds, long warmup) throws Exception {
+        HttpRequest reserve = update(url, eventId, 1);
+        HttpRequest release = update(url, eventId, -1);
+
+        long start = System.nanoTime();
+        long measureFrom = start + Duration.ofSeconds(warmup).toNanos();
+        long end = measureFrom + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<Samples> perClient = new ArrayList<>();
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                Samples samples = new Samples();
+                perClient.add(samples);
+                pool.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        if (send(http, reserve, samples, errors, measureFrom)) {
+                            // Retry the release so a failure doesn't leak a ticket
+                            for (int i = 0; i < 3; i++) {
+                                if (send(http, release, samples, errors, measureFrom)) break;
+                            }
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+
+        long[] all = perClient.stream()
+                .flatMapToLong(s -> Arrays.stream(s.values, 0, s.count))
+                .sorted()
+                .toArray();
+        double throughput = all.length / (double) seconds;
+        System.out.printf("%s updates=%d errors=%d throughput=%.1f/s p50=%.1fms p99=%.1fms max=%.1fms%n",
+                label, all.length, errors.get(), throughput,
+                percentile(all, 0.50), percentile(all, 0.99), all.length == 0 ? 0 : all[all.length - 1] / 1e6);
+        return throughput;
+    }
+
+    private static boolean send(HttpClient http, HttpRequest request, Samples samples,
+                                AtomicLong errors, long measureFrom) {
+        long t0 = System.nanoTime();
+        try {
+            HttpResponse<Void> res = http.send(request, HttpResponse.BodyHandlers.discarding());
+            boolean ok = res.statusCode() / 100 == 2;
+            if (t0 >= measureFrom) {
+                if (ok) samples.add(System.nanoTime() - t0);
+                else errors.incrementAndGet();
+            }
+            return ok;
+        } catch (Exception e) {
+            if (t0 >= measureFrom) errors.incrementAndGet();
+            return false;
+        }
+    }
+
+    private static HttpRequest update(String url, UUID eventId, int ticketsSold) {
+        return HttpRequest.newBuilder(URI.create(url + "/events/" + eventId + "/tickets?ticketsSold=" + ticketsSold))
+                .timeout(Duration.ofSeconds(30))
+                .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int i = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(i, 0)] / 1e6;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            opts.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return opts;
+    }
+
+    private static String required(Map<String, String> opts, String name) {
+        String value = opts.get(name);
+        if (value == null) throw new IllegalArgumentException("--" + name + " is required");
+        return value;
+    }
+}
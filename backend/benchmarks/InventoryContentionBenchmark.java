@@ -0,0 +1,158 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Contention test of ticket reservation on one event: many clients reserve one ticket at a time
+ * (PATCH /events/{id}/tickets?ticketsSold=1) until the event is sold out, then the event is read
+ * back and checked for oversell.
+ *
+ * Point it at one event-service instance (not the gateway), so the read-back isn't served from
+ * another instance's cache, and use an event without tiers:
+ *
+ *   java benchmarks/InventoryContentionBenchmark.java --event <eventId> \
+ *        --url http://localhost:8083 --clients 500 --restore true
+ *
+ * Prints throughput and latency of the accepted reservations and the oversell check, and exits
+ * with status 1 when the event sold more tickets than it has, or than the clients were told.
+ * With --restore true the sold tickets are released again afterwards.
+ */
+public class InventoryContentionBenchmark {
+
+    // Latencies (ns) of one client's accepted reservations
+    private static final class Samples {
+        long[] values = new long[1024];
+        int count;
+
+        void add(long nanos) {
+            if (count == values.length) values = Arrays.copyOf(values, count * 2);
+            values[count++] = nanos;
+        }
+    }
+
+    private static final Pattern TOTAL = Pattern.compile("\"totalTickets\"\\s*:\\s*(\\d+)");
+    private static final Pattern SOLD = Pattern.compile("\"ticketsSold\"\\s*:\\s*(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parse(args);
+        String url = opts.getOrDefault("url", "http://localhost:8083");
+        UUID eventId = UUID.fromString(required(opts, "event"));
+        int clients = Integer.parseInt(opts.getOrDefault("clients", "200"));
+        boolean restore = Boolean.parseBoolean(opts.getOrDefault("restore", "false"));
+
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        String before = get(http, url + "/events/" + eventId);
+        int total = field(TOTAL, before);
+        int soldBefore = field(SOLD, before);
+
+        AtomicLong accepted = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        List<Samples> perClient = new ArrayList<>();
+        HttpRequest reserve = HttpRequest.newBuilder(URI.create(url + "/events/" + eventId + "/tickets?ticketsSold=1"))
+                .timeout(Duration.ofSeconds(30))
+                .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                .build();
+
+        long start = System.nanoTime();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                Samples samples = new Samples();
+                perClient.add(samples);
+                pool.submit(() -> {
+                    // Each client keeps buying until it is turned away (sold out)
+                    while (true) {
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<Void> res = http.send(reserve, HttpResponse.BodyHandlers.discarding());
+                            if (res.statusCode() / 100 == 2) {
+                                samples.add(System.nanoTime() - t0);
+                                accepted.incrementAndGet();
+                            } else {
+                                rejected.incrementAndGet();
+                                return null;
+                            }
+                        } catch (Exception e) {
+                            // Outcome unknown; the read-back below still has to add up
+                            errors.incrementAndGet();
+                            return null;
+                        }
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int soldAfter = field(SOLD, get(http, url + "/events/" + eventId));
+        long[] all = perClient.stream()
+                .flatMapToLong(s -> Arrays.stream(s.values, 0, s.count))
+                .sorted()
+                .toArray();
+
+        boolean oversold = soldAfter > total;
+        // Without transport errors every sold ticket was acknowledged to exactly one client
+        boolean mismatch = errors.get() == 0 && soldAfter - soldBefore != accepted.get();
+        System.out.printf("accepted=%d rejected=%d errors=%d throughput=%.1f/s p50=%.1fms p99=%.1fms max=%.1fms%n",
+                accepted.get(), rejected.get(), errors.get(), accepted.get() / seconds,
+                percentile(all, 0.50), percentile(all, 0.99), all.length == 0 ? 0 : all[all.length - 1] / 1e6);
+        System.out.printf("total=%d soldBefore=%d soldAfter=%d oversold=%s acknowledgedMismatch=%s%n",
+                total, soldBefore, soldAfter, oversold, mismatch);
+
+        if (restore && soldAfter > soldBefore) {
+            http.send(HttpRequest.newBuilder(URI.create(url + "/events/" + eventId + "/tickets?ticketsSold=" + (soldBefore - soldAfter)))
+                    .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                    .build(), HttpResponse.BodyHandlers.discarding());
+        }
+        if (oversold || mismatch) System.exit(1);
+    }
+
+    private static String get(HttpClient http, String uri) throws Exception {
+        HttpResponse<String> res = http.send(HttpRequest.newBuilder(URI.create(uri)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (res.statusCode() != 200) throw new IllegalStateException("GET " + uri + " returned " + res.statusCode());
+        return res.body();
+    }
+
+    private static int field(Pattern pattern, String json) {
+        Matcher m = pattern.matcher(json);
+        if (!m.find()) throw new IllegalStateException("Field missing in " + json);
+        return Integer.parseInt(m.group(1));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int i = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(i, 0)] / 1e6;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            opts.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return opts;
+    }
+
+    private static String required(Map<String, String> opts, String name) {
+        String value = opts.get(name);
+        if (value == null) throw new IllegalArgumentException("--" + name + " is required");
+        return value;
+    }
+}
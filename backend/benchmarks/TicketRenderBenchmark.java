@@ -0,0 +1,196 @@
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.ticketapp.ticket_service.service.TicketPdfTemplate;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-ticket cost of rendering the ticket PDF: drawing the whole page every time (the renderer
+ * ticket-service used before, copied below) against the precompiled template, with the QR code
+ * as a bitmap (image) and as vector rectangles (vector). All include encoding the QR code and
+ * write to memory, so disk speed doesn't count. Single threaded; run from
+ * backend/ after building ticket-service:
+ *
+ *   (cd ticket-service && mvn -q compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt)
+ *   java -cp "ticket-service/target/classes:$(cat ticket-service/target/cp.txt)" \
+ *        benchmarks/TicketRenderBenchmark.java --tickets 5000 --warmup 2000
+ *
+ * Prints one line per renderer: tickets, microseconds per ticket, KB allocated per ticket, PDF size.
+ */
+public class TicketRenderBenchmark {
+
+    interface Renderer {
+        void render(UUID bookingId, UUID userId, UUID eventId, String seatIds, Map<String, Object> booking,
+                    ByteArrayOutputStream out) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parse(args);
+        int tickets = Integer.parseInt(opts.getOrDefault("tickets", "5000"));
+        int warmup = Integer.parseInt(opts.getOrDefault("warmup", "2000"));
+
+        TicketPdfTemplate template = TicketPdfTemplate.defaults();
+        run("legacy", TicketRenderBenchmark::legacy, warmup, tickets);
+        run("image", templated(template, TicketPdfTemplate.QrMode.IMAGE), warmup, tickets);
+        run("vector", templated(template, TicketPdfTemplate.QrMode.VECTOR), warmup, tickets);
+    }
+
+    private static Renderer templated(TicketPdfTemplate template, TicketPdfTemplate.QrMode mode) {
+        return (bookingId, userId, eventId, seatIds, booking, out) -> template.render(bookingId, userId, eventId,
+                seatIds, booking, TicketPdfTemplate.encodeQr(qrText(bookingId, userId, eventId, seatIds), mode),
+                mode, LocalDateTime.now(), out);
+    }
+
+    private static void run(String label, Renderer renderer, int warmup, int tickets) throws Exception {
+        Map<String, Object> booking = new HashMap<>();
+        booking.put("quantity", 2);
+        booking.put("amount", 1998.0);
+        booking.put("paymentId", "pay_" + UUID.randomUUID());
+        booking.put("status", "CONFIRMED");
+        booking.put("ticketType", "VIP");
+        UUID userId = UUID.randomUUID();
+        UUID eventId = UUID.randomUUID();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+
+        for (int i = 0; i < warmup; i++) {
+            out.reset();
+            renderer.render(UUID.randomUUID(), userId, eventId, i % 2 == 0 ? "A-1,A-2" : null, booking, out);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        long bytes = 0;
+        for (int i = 0; i < tickets; i++) {
+            out.reset();
+            renderer.render(UUID.randomUUID(), userId, eventId, i % 2 == 0 ? "A-1,A-2" : null, booking, out);
+            bytes += out.size();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        System.out.printf("%-9s tickets=%d us/ticket=%.1f alloc_kb/ticket=%.1f pdf_bytes=%d%n",
+                label, tickets, elapsed / 1e3 / tickets, allocated / 1024.0 / tickets, bytes / tickets);
+    }
+
+    private static String qrText(UUID bookingId, UUID userId, UUID eventId, String seatIds) {
+        String qrText = String.format("TICKET|%s|%s|%s|%s", bookingId, userId, eventId, LocalDateTime.now());
+        if (seatIds != null && !seatIds.isBlank()) qrText += "|" + seatIds;
+        return qrText;
+    }
+
+    // The page as ticket-service drew it before templates: everything, every time
+    private static void legacy(UUID bookingId, UUID userId, UUID eventId, String seatIds, Map<String, Object> bookingDetails,
+                               ByteArrayOutputStream out) throws Exception {
+        BitMatrix bm = new QRCodeWriter().encode(qrText(bookingId, userId, eventId, seatIds), BarcodeFormat.QR_CODE, 220, 220);
+        BufferedImage qrImage = MatrixToImageWriter.toBufferedImage(bm);
+        try (PDDocument doc = new PDDocument()) {
+            PDPage page = new PDPage(PDRectangle.A6);
+            doc.addPage(page);
+            var pdImage = LosslessFactory.createFromImage(doc, qrImage);
+
+            try (PDPageContentStream content = new PDPageContentStream(doc, page)) {
+                content.setNonStrokingColor(new Color(250, 250, 250));
+                content.addRect(0, 0, page.getMediaBox().getWidth(), page.getMediaBox().getHeight());
+                content.fill();
+
+                content.setNonStrokingColor(new Color(33, 150, 243));
+                content.addRect(0, page.getMediaBox().getHeight() - 45, page.getMediaBox().getWidth(), 45);
+                content.fill();
+
+                content.beginText();
+                content.setNonStrokingColor(Color.WHITE);
+                content.setFont(PDType1Font.HELVETICA_BOLD, 18);
+                content.newLineAtOffset(25, page.getMediaBox().getHeight() - 30);
+                content.showText(" Ticket Confirmation");
+                content.endText();
+
+                float y = page.getMediaBox().getHeight() - 70;
+                content.setNonStrokingColor(Color.BLACK);
+
+                drawLabelValue(content, "Booking ID:", bookingId.toString(), 25, y); y -= 15;
+                drawLabelValue(content, "User ID:", userId.toString(), 25, y); y -= 15;
+                drawLabelValue(content, "Event ID:", eventId.toString(), 25, y); y -= 15;
+                drawLabelValue(content, "Quantity:", String.valueOf(bookingDetails.getOrDefault("quantity", "N/A")), 25, y); y -= 15;
+                drawLabelValue(content, "Amount:", "Rs " + bookingDetails.getOrDefault("amount", "N/A"), 25, y); y -= 15;
+                drawLabelValue(content, "Payment ID:", String.valueOf(bookingDetails.getOrDefault("paymentId", "N/A")), 25, y); y -= 15;
+                drawLabelValue(content, "Status:", String.valueOf(bookingDetails.getOrDefault("status", "N/A")), 25, y); y -= 15;
+                drawLabelValue(content, "Ticket Type:", String.valueOf(bookingDetails.getOrDefault("ticketType", "Standard")), 25, y); y -= 15;
+                if (seatIds != null && !seatIds.isBlank()) {
+                    drawLabelValue(content, "Seats:", seatIds.replace(",", ", "), 25, y); y -= 15;
+                }
+                y -= 5;
+
+                content.setStrokingColor(Color.LIGHT_GRAY);
+                content.moveTo(20, y);
+                content.lineTo(page.getMediaBox().getWidth() - 20, y);
+                content.stroke();
+
+                float imgW = 160f, imgH = 160f;
+                float startX = (page.getMediaBox().getWidth() - imgW) / 2f;
+                float startY = y - imgH - 15;
+                content.drawImage(pdImage, startX, startY, imgW, imgH);
+
+                content.beginText();
+                content.setFont(PDType1Font.HELVETICA_OBLIQUE, 9);
+                content.setNonStrokingColor(Color.DARK_GRAY);
+                content.newLineAtOffset(45, 55);
+                content.showText("Please present this ticket at event entry.");
+                content.endText();
+
+                content.beginText();
+                content.setFont(PDType1Font.HELVETICA_OBLIQUE, 8);
+                content.newLineAtOffset(75, 42);
+                content.showText("Generated: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
+                content.endText();
+
+                content.beginText();
+                content.setFont(PDType1Font.HELVETICA_OBLIQUE, 8);
+                content.setNonStrokingColor(new Color(33, 150, 243));
+                content.newLineAtOffset(90, 30);
+                content.showText("Powered by TicketApp");
+                content.endText();
+            }
+            doc.save(out);
+        }
+    }
+
+    private static void drawLabelValue(PDPageContentStream content, String label, String value, float x, float y) throws IOException {
+        content.beginText();
+        content.setFont(PDType1Font.HELVETICA_BOLD, 10);
+        content.newLineAtOffset(x, y);
+        content.showText(label);
+        content.endText();
+
+        content.beginText();
+        content.setFont(PDType1Font.HELVETICA, 10);
+        content.newLineAtOffset(x + 80, y);
+        content.showText(value);
+        content.endText();
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            opts.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return opts;
+    }
+}
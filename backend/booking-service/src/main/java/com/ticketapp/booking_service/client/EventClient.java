@@ -3,8 +3,12 @@ package com.ticketapp.booking_service.client;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @FeignClient(name = "event-service", url = "${EVENT_SERVICE_URL:http://localhost:8083}")
@@ -16,4 +20,36 @@ public interface EventClient {
             @PathVariable UUID eventId,
             @RequestParam("ticketsSold") int ticketsSold
     );
+
+    // Reserves (positive quantity) or releases (negative) tickets of a tier; returns unitPrice and remaining.
+    // requestId makes a retried call count once.
+    @PostMapping("/events/{eventId}/reservations")
+    Map<String, Object> reserveTickets(
+            @PathVariable UUID eventId,
+            @RequestParam("quantity") int quantity,
+            @RequestParam(value = "ticketType", required = false) String ticketType,
+            @RequestParam(value = "requestId", required = false) String requestId
+    );
+
+    // Cart: reserves every line (eventId, ticketType, quantity, seatSection, seatIds) or none
+    @PostMapping("/events/reservations")
+    List<Map<String, Object>> reserveAll(@RequestBody List<Map<String, Object>> lines);
+
+    // Assigned seating: holds the best adjacent seats (or the given ones) and the ticket count
+    @PostMapping("/events/{eventId}/seats/hold")
+    Map<String, Object> holdSeats(
+            @PathVariable UUID eventId,
+            @RequestParam("quantity") int quantity,
+            @RequestParam(value = "section", required = false) String section,
+            @RequestParam(value = "ticketType", required = false) String ticketType,
+            @RequestBody(required = false) List<String> seatIds
+    );
+
+    @PostMapping("/events/{eventId}/seats/release")
+    List<String> releaseSeats(
+            @PathVariable UUID eventId,
+            @RequestParam(value = "ticketType", required = false) String ticketType,
+            @RequestParam(value = "requestId", required = false) String requestId,
+            @RequestBody List<String> seatIds
+    );
 }
@@ -0,0 +1,15 @@
+package com.ticketapp.booking_service.client;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.Map;
+
+@FeignClient(name = "payment-service", url = "${PAYMENT_SERVICE_URL:http://localhost:8085}")
+public interface PaymentClient {
+
+    // Instant (coupon) payment; unlike POST /payments it does not call booking-service back
+    @PostMapping("/payments/instant")
+    Map<String, Object> payInstant(@RequestBody Map<String, Object> request);
+}
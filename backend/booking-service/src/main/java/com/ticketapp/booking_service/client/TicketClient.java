@@ -1,12 +1,24 @@
 package com.ticketapp.booking_service.client;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 @FeignClient(name = "ticket-service", url = "${TICKET_SERVICE_URL:http://localhost:8084}")
 public interface TicketClient {
+    // Matches TicketController.generate: the signed booking snapshot (BookingSnapshots), from which
+    // ticket-service issues the ticket
     @PostMapping("/tickets/generate")
-    void generateTicket(@RequestParam UUID bookingId);
+    Map<String, Object> generateTicket(@RequestBody Map<String, Object> booking);
+
+    // Body of a request without a snapshot (outbox messages queued before snapshots were stored);
+    // ticket-service then reads the booking from booking-service
+    static Map<String, Object> payload(UUID bookingId) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("bookingId", bookingId.toString());
+        return body;
+    }
 }
@@ -1,8 +1,15 @@
 package com.ticketapp.booking_service.controller;
 
 import com.ticketapp.booking_service.dto.BookingDTO;
+import com.ticketapp.booking_service.dto.CartDTO;
+import com.ticketapp.booking_service.dto.CheckoutDTO;
+import com.ticketapp.booking_service.dto.CheckoutResult;
 import com.ticketapp.booking_service.entity.Booking;
+import com.ticketapp.booking_service.entity.BookingStatus;
+import com.ticketapp.booking_service.entity.OutboxMessage;
 import com.ticketapp.booking_service.service.BookingService;
+import com.ticketapp.booking_service.service.IdempotencyStore;
+import com.ticketapp.booking_service.service.Outbox;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,20 +23,96 @@ import java.util.UUID;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final IdempotencyStore idempotency;
+    private final Outbox outbox;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, IdempotencyStore idempotency, Outbox outbox) {
         this.bookingService = bookingService;
+        this.idempotency = idempotency;
+        this.outbox = outbox;
     }
 
+    // A retry with the same Idempotency-Key gets the original booking instead of a second HOLD
     @PostMapping("/book")
-    public ResponseEntity<Booking> createBooking(@RequestBody BookingDTO dto) {
-        Booking booking = bookingService.createBooking(dto);
-        return ResponseEntity.created(URI.create("/bookings/" + booking.getBookingId())).body(booking);
+    public ResponseEntity<Booking> createBooking(
+            @RequestBody BookingDTO dto,
+            @RequestHeader(value = "X-Event-Id", required = false) UUID admittedEventId,
+            @RequestHeader(value = "X-User-Id", required = false) UUID admittedUserId,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        // The gateway's waiting room checks admission against these headers, so they must match the body
+        if ((admittedEventId != null && !admittedEventId.equals(dto.getEventId()))
+                || (admittedUserId != null && !admittedUserId.equals(dto.getUserId()))) {
+            return ResponseEntity.badRequest().build();
+        }
+        return idempotency.execute(idempotencyKey, "POST /bookings/book", dto, () -> {
+            Booking booking = bookingService.createBooking(dto);
+            return ResponseEntity.created(URI.create("/bookings/" + booking.getBookingId())).body(booking);
+        });
+    }
+
+    // ✅ Book, pay (instant coupons only), confirm and issue the ticket in one request
+    @PostMapping("/checkout")
+    public ResponseEntity<CheckoutResult> checkout(
+            @RequestBody CheckoutDTO dto,
+            @RequestHeader(value = "X-Event-Id", required = false) UUID admittedEventId,
+            @RequestHeader(value = "X-User-Id", required = false) UUID admittedUserId,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        if ((admittedEventId != null && !admittedEventId.equals(dto.getEventId()))
+                || (admittedUserId != null && !admittedUserId.equals(dto.getUserId()))) {
+            return ResponseEntity.badRequest().build();
+        }
+        return idempotency.execute(idempotencyKey, "POST /bookings/checkout", dto, () -> {
+            CheckoutResult result = bookingService.checkout(dto);
+            return ResponseEntity.created(URI.create("/bookings/" + result.getBooking().getBookingId())).body(result);
+        });
+    }
+
+    // ✅ Book several events / tiers in one request: one all-or-nothing reservation, one hold expiry.
+    // X-Event-Id lists the cart's events (comma separated) for the waiting room and must cover them.
+    @PostMapping("/cart")
+    public ResponseEntity<List<Booking>> createCart(
+            @RequestBody CartDTO cart,
+            @RequestHeader(value = "X-Event-Id", required = false) List<UUID> admittedEventIds,
+            @RequestHeader(value = "X-User-Id", required = false) UUID admittedUserId,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        if ((admittedEventIds != null && cart.getItems() != null
+                && !cart.getItems().stream().allMatch(item -> admittedEventIds.contains(item.getEventId())))
+                || (admittedUserId != null && !admittedUserId.equals(cart.getUserId()))) {
+            return ResponseEntity.badRequest().build();
+        }
+        return idempotency.execute(idempotencyKey, "POST /bookings/cart", cart, () -> {
+            List<Booking> bookings = bookingService.createCart(cart);
+            return ResponseEntity.created(URI.create("/bookings/orders/" + bookings.get(0).getOrderId())).body(bookings);
+        });
+    }
+
+    @GetMapping("/orders/{orderId}")
+    public ResponseEntity<List<Booking>> getOrder(@PathVariable UUID orderId) {
+        List<Booking> bookings = bookingService.getOrder(orderId);
+        return bookings.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(bookings);
+    }
+
+    @PutMapping("/orders/{orderId}/confirm")
+    public ResponseEntity<List<Booking>> confirmOrder(
+            @PathVariable UUID orderId,
+            @RequestParam String paymentId,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotency.execute(idempotencyKey, "PUT /bookings/orders/" + orderId + "/confirm", paymentId,
+                () -> ResponseEntity.ok(bookingService.confirmOrder(orderId, paymentId)));
+    }
+
+    @PatchMapping("/orders/{orderId}/cancel")
+    public ResponseEntity<List<Booking>> cancelOrder(@PathVariable UUID orderId) {
+        return ResponseEntity.ok(bookingService.cancelOrder(orderId));
     }
 
     @PutMapping("/{id}/confirm")
-    public ResponseEntity<Booking> confirmBooking(@PathVariable UUID id, @RequestParam String paymentId) {
-        return ResponseEntity.ok(bookingService.confirmBooking(id, paymentId));
+    public ResponseEntity<Booking> confirmBooking(
+            @PathVariable UUID id,
+            @RequestParam String paymentId,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotency.execute(idempotencyKey, "PUT /bookings/" + id + "/confirm", paymentId,
+                () -> ResponseEntity.ok(bookingService.confirmBooking(id, paymentId)));
     }
 
     @PatchMapping("/{id}/cancel")
@@ -37,16 +120,52 @@ public class BookingController {
         return ResponseEntity.ok(bookingService.cancelBooking(id));
     }
 
+    // ✅ Bulk cancel (e.g. an admin cancelling a sold-out event's unpaid holds)
+    @PostMapping("/cancel")
+    public ResponseEntity<List<Booking>> cancelBookings(@RequestBody List<UUID> ids) {
+        return ResponseEntity.ok(bookingService.cancelBookings(ids));
+    }
+
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<Booking>> getByUser(@PathVariable UUID userId) {
         return ResponseEntity.ok(bookingService.getBookingsByUser(userId));
     }
 
+    // ✅ Paged history: ?cursor=<nextCursor>&limit=20&status=CONFIRMED&status=HOLD
+    @GetMapping("/user/{userId}/history")
+    public ResponseEntity<?> getHistory(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) List<BookingStatus> status) {
+        try {
+            return ResponseEntity.ok(bookingService.getBookingHistory(userId, cursor, limit, status));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
     // ✅ ADMIN BOOKING STATS
     @GetMapping("/admin/stats")
     public ResponseEntity<Map<String, Object>> getAdminStats() {
         return ResponseEntity.ok(bookingService.getBookingStats());
     }
+
+    // ✅ Admin: outbox messages that ran out of attempts, and retrying one
+    @GetMapping("/admin/outbox/dead")
+    public ResponseEntity<List<OutboxMessage>> deadOutboxMessages(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(outbox.deadMessages(limit));
+    }
+
+    @PostMapping("/admin/outbox/{id}/retry")
+    public ResponseEntity<?> retryOutboxMessage(@PathVariable Long id) {
+        try {
+            return ResponseEntity.accepted().body(outbox.retry(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Booking> getBookingById(@PathVariable UUID id) {
         return bookingService.getBookingById(id)
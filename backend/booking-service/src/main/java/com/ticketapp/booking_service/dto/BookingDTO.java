@@ -1,6 +1,7 @@
 package com.ticketapp.booking_service.dto;
 import com.ticketapp.booking_service.entity.BookingStatus;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 public class BookingDTO {
@@ -11,6 +12,9 @@ public class BookingDTO {
     private BookingStatus status;
     private LocalDateTime holdExpiry;
     private String paymentStatus;
+    // Assigned seating: either exact seats, or a section to pick the best adjacent seats from
+    private List<String> seatIds;
+    private String seatSection;
 
     // Getters and Setters
     public UUID getUserId() { return userId; }
@@ -27,4 +31,8 @@ public class BookingDTO {
     public void setHoldExpiry(LocalDateTime holdExpiry) { this.holdExpiry = holdExpiry; }
     public String getPaymentStatus() { return paymentStatus; }
     public void setPaymentStatus(String paymentStatus) { this.paymentStatus = paymentStatus; }
+    public List<String> getSeatIds() { return seatIds; }
+    public void setSeatIds(List<String> seatIds) { this.seatIds = seatIds; }
+    public String getSeatSection() { return seatSection; }
+    public void setSeatSection(String seatSection) { this.seatSection = seatSection; }
 }
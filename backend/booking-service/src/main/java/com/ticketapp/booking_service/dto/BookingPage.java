@@ -0,0 +1,24 @@
+package com.ticketapp.booking_service.dto;
+
+import com.ticketapp.booking_service.entity.Booking;
+
+import java.util.List;
+
+// One page of a user's booking history; pass nextCursor back to get the following page (null on the last one)
+public class BookingPage {
+    private List<Booking> items;
+    private String nextCursor;
+
+    public BookingPage() {
+    }
+
+    public BookingPage(List<Booking> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Booking> getItems() { return items; }
+    public void setItems(List<Booking> items) { this.items = items; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,15 @@
+package com.ticketapp.booking_service.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+// Several (event, tier, quantity) lines booked together; the userId of the items is ignored
+public class CartDTO {
+    private UUID userId;
+    private List<BookingDTO> items;
+
+    public UUID getUserId() { return userId; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+    public List<BookingDTO> getItems() { return items; }
+    public void setItems(List<BookingDTO> items) { this.items = items; }
+}
@@ -0,0 +1,12 @@
+package com.ticketapp.booking_service.dto;
+
+// A booking plus how to pay for it, for the one-shot checkout
+public class CheckoutDTO extends BookingDTO {
+    private String couponCode;
+    private String currency = "INR";
+
+    public String getCouponCode() { return couponCode; }
+    public void setCouponCode(String couponCode) { this.couponCode = couponCode; }
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+}
@@ -0,0 +1,28 @@
+package com.ticketapp.booking_service.dto;
+
+import com.ticketapp.booking_service.entity.Booking;
+
+// Confirmed booking with its payment and where to fetch the ticket (ticketReady is false while
+// the ticket is still being generated; poll /tickets/status/{bookingId})
+public class CheckoutResult {
+    private Booking booking;
+    private String paymentId;
+    private String ticketUrl;
+    private boolean ticketReady;
+
+    public CheckoutResult(Booking booking, String paymentId, String ticketUrl, boolean ticketReady) {
+        this.booking = booking;
+        this.paymentId = paymentId;
+        this.ticketUrl = ticketUrl;
+        this.ticketReady = ticketReady;
+    }
+
+    public Booking getBooking() { return booking; }
+    public void setBooking(Booking booking) { this.booking = booking; }
+    public String getPaymentId() { return paymentId; }
+    public void setPaymentId(String paymentId) { this.paymentId = paymentId; }
+    public String getTicketUrl() { return ticketUrl; }
+    public void setTicketUrl(String ticketUrl) { this.ticketUrl = ticketUrl; }
+    public boolean isTicketReady() { return ticketReady; }
+    public void setTicketReady(boolean ticketReady) { this.ticketReady = ticketReady; }
+}
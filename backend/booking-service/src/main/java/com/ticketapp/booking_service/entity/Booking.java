@@ -10,29 +10,55 @@ import java.util.UUID;
 @Entity
 @Getter
 @Setter
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        // Hold-expiry lookups: active holds and the ones already past their deadline
+        @Index(name = "idx_bookings_status_hold_expiry", columnList = "status, hold_expiry"),
+        @Index(name = "idx_bookings_order_id", columnList = "order_id"),
+        // Booking history: newest first per user, optionally per status (keyset on created_at, booking_id)
+        @Index(name = "idx_bookings_user_created", columnList = "user_id, created_at DESC, booking_id DESC"),
+        @Index(name = "idx_bookings_user_status_created", columnList = "user_id, status, created_at DESC, booking_id DESC")
+})
 public class Booking {
 
     @Id
     @GeneratedValue
     private UUID bookingId;
 
+    // Shared by the bookings of one cart checkout; null for single bookings
+    @Column(name = "order_id")
+    private UUID orderId;
+
+    @Column(name = "user_id")
     private UUID userId;
     private UUID eventId;
     private String ticketType;
     private int quantity;
 
+    // Price per ticket of the booked tier, fixed when the tickets were held
+    private Double unitPrice;
+
+    // Assigned seats, comma separated (e.g. "A-12-7,A-12-8"); null for general admission
+    @Column(length = 2000)
+    private String seatIds;
+
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
 
+    @Column(name = "hold_expiry")
     private LocalDateTime holdExpiry;
+
     private String paymentStatus;
     private String paymentId;
     private boolean cancellationAllowed;
 
+    @Column(name = "created_at")
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    public double getAmount() {
+        return unitPrice == null ? 0 : unitPrice * quantity;
+    }
+
     @PrePersist
     public void onCreate() {
         this.createdAt = LocalDateTime.now();
@@ -0,0 +1,68 @@
+package com.ticketapp.booking_service.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// A request that carried an Idempotency-Key: claimed while the first request runs, then holding
+// its successful response for replay. Written through IdempotencyRecordRepository's queries only.
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_created", columnList = "created_at")
+})
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String key;
+
+    // Operation and request body the key was first used for
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    // Request currently holding the key, so only it can complete or free it
+    @Column(nullable = false)
+    private UUID claim;
+
+    // Null while the first request is still running
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "response_location", length = 1000)
+    private String responseLocation;
+
+    @Column(name = "response_body", columnDefinition = "text")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public UUID getClaim() {
+        return claim;
+    }
+
+    public Integer getResponseStatus() {
+        return responseStatus;
+    }
+
+    public String getResponseLocation() {
+        return responseLocation;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
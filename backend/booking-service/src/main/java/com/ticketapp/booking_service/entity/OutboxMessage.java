@@ -0,0 +1,69 @@
+package com.ticketapp.booking_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// A side effect for another service, written in the same transaction as the booking change and
+// deleted once delivered, or marked dead after too many attempts. Messages with the same
+// aggregateId are delivered in id order.
+@Entity
+@Getter
+@Setter
+@Table(name = "booking_outbox", indexes = {
+        @Index(name = "idx_booking_outbox_next_attempt", columnList = "next_attempt_at"),
+        @Index(name = "idx_booking_outbox_aggregate", columnList = "aggregate_id, id")
+})
+public class OutboxMessage {
+
+    // One sequence value per message (no pooling), so ids follow commit order per aggregate.
+    // Also sent as requestId, so a redelivered message is applied once.
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_outbox_seq")
+    @SequenceGenerator(name = "booking_outbox_seq", sequenceName = "booking_outbox_seq", allocationSize = 1)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxType type;
+
+    // Booking for GENERATE_TICKET; a fresh id for RELEASE_TICKETS, which need no ordering
+    @Column(name = "aggregate_id", nullable = false)
+    private UUID aggregateId;
+
+    private UUID bookingId;
+    private UUID eventId;
+    private String ticketType;
+    private int quantity;
+
+    // Comma separated seat IDs for assigned seating, null for general admission
+    @Column(columnDefinition = "text")
+    private String seatIds;
+
+    // GENERATE_TICKET: the signed booking snapshot sent as the request body (JSON)
+    @Column(columnDefinition = "text")
+    private String payload;
+
+    private int attempts;
+
+    // Gave up after bookings.outbox.max-attempts; left for an admin to inspect and retry
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private boolean dead;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void onCreate() {
+        this.createdAt = LocalDateTime.now();
+        if (this.nextAttemptAt == null) this.nextAttemptAt = this.createdAt;
+    }
+}
@@ -0,0 +1,8 @@
+package com.ticketapp.booking_service.entity;
+
+public enum OutboxType {
+    // Give tickets (and seats) back to event-service; aggregated per event and tier
+    RELEASE_TICKETS,
+    // Ask ticket-service for the ticket of a confirmed booking
+    GENERATE_TICKET
+}
@@ -0,0 +1,11 @@
+package com.ticketapp.booking_service.exception;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// The booking exists but is in a state that doesn't allow the change (e.g. confirming a cancelled hold)
+@ResponseStatus(HttpStatus.CONFLICT)
+public class BookingStateException extends RuntimeException {
+    public BookingStateException(String message) {
+        super(message);
+    }
+}
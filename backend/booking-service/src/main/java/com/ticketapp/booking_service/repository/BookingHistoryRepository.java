@@ -0,0 +1,16 @@
+package com.ticketapp.booking_service.repository;
+
+import com.ticketapp.booking_service.entity.Booking;
+import com.ticketapp.booking_service.entity.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// Keyset-paged booking history, newest first
+public interface BookingHistoryRepository {
+
+    // Bookings of the user older than (beforeCreatedAt, beforeId), or the newest when both are null
+    List<Booking> findHistoryPage(UUID userId, List<BookingStatus> statuses,
+                                  LocalDateTime beforeCreatedAt, UUID beforeId, int limit);
+}
@@ -0,0 +1,56 @@
+package com.ticketapp.booking_service.repository;
+
+import com.ticketapp.booking_service.entity.Booking;
+import com.ticketapp.booking_service.entity.BookingStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// The status filter is only added when set, so the planner walks (user_id, created_at, booking_id)
+// or (user_id, status, created_at, booking_id) and stops after one page
+class BookingHistoryRepositoryImpl implements BookingHistoryRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<Booking> findHistoryPage(UUID userId, List<BookingStatus> statuses,
+                                         LocalDateTime beforeCreatedAt, UUID beforeId, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Booking> q = cb.createQuery(Booking.class);
+        Root<Booking> b = q.from(Booking.class);
+
+        Path<LocalDateTime> createdAt = b.get("createdAt");
+        Path<UUID> id = b.get("bookingId");
+
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.equal(b.get("userId"), userId));
+        if (statuses != null && !statuses.isEmpty()) {
+            where.add(statuses.size() == 1 ? cb.equal(b.get("status"), statuses.get(0)) : b.get("status").in(statuses));
+        }
+
+        // Keyset: (createdAt, bookingId) < (beforeCreatedAt, beforeId)
+        if (beforeCreatedAt != null && beforeId != null) {
+            where.add(cb.or(
+                    cb.lessThan(createdAt, beforeCreatedAt),
+                    cb.and(cb.equal(createdAt, beforeCreatedAt), cb.lessThan(id, beforeId))));
+        }
+
+        q.select(b)
+                .where(where.toArray(new Predicate[0]))
+                .orderBy(cb.desc(createdAt), cb.desc(id));
+
+        return em.createQuery(q)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
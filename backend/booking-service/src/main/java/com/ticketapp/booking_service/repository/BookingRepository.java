@@ -2,12 +2,69 @@ package com.ticketapp.booking_service.repository;
 
 import com.ticketapp.booking_service.entity.Booking;
 import com.ticketapp.booking_service.entity.BookingStatus;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
-public interface BookingRepository extends JpaRepository<Booking, UUID> {
-    List<Booking> findByUserId(UUID userId);
-    long countByStatus(BookingStatus status);
+public interface BookingRepository extends JpaRepository<Booking, UUID>, BookingHistoryRepository {
+
+    // Just what the hold-expiry queue needs
+    interface HoldView {
+        UUID getBookingId();
+        LocalDateTime getHoldExpiry();
+    }
+
+    // One row per (status, payment status) for the stats reconcile
+    interface StatusTotals {
+        BookingStatus getStatus();
+        String getPaymentStatus();
+        long getBookings();
+        double getRevenue();
+    }
+
+    List<Booking> findByUserIdOrderByCreatedAtDescBookingIdDesc(UUID userId);
+    List<Booking> findByOrderId(UUID orderId);
+
+    // Counts and revenue (from the unit price snapshotted on each booking) in one pass
+    @Query("SELECT b.status AS status, UPPER(b.paymentStatus) AS paymentStatus, COUNT(b) AS bookings, " +
+            "COALESCE(SUM(b.quantity * b.unitPrice), 0) AS revenue " +
+            "FROM Booking b GROUP BY b.status, UPPER(b.paymentStatus)")
+    List<StatusTotals> totalsByStatus();
+
+    // Active holds, read through the (status, hold_expiry) index
+    List<HoldView> findByStatus(BookingStatus status);
+
+    List<HoldView> findByStatusAndHoldExpiryBefore(BookingStatus status, LocalDateTime before, Pageable pageable);
+
+    // Lock the holds that are still due, skipping rows another instance is already expiring
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT b FROM Booking b WHERE b.bookingId IN :ids " +
+            "AND b.status = com.ticketapp.booking_service.entity.BookingStatus.HOLD AND b.holdExpiry <= :now")
+    List<Booking> lockExpiredHolds(@Param("ids") Collection<UUID> ids, @Param("now") LocalDateTime now);
+
+    // Row-locked reads for confirming, so a hold can't be confirmed while it is expired or cancelled
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.bookingId = :id")
+    Optional<Booking> lockById(@Param("id") UUID id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.orderId = :orderId ORDER BY b.bookingId")
+    List<Booking> lockByOrderId(@Param("orderId") UUID orderId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.bookingId IN :ids " +
+            "AND b.status <> com.ticketapp.booking_service.entity.BookingStatus.CANCELLED")
+    List<Booking> lockCancellable(@Param("ids") Collection<UUID> ids);
 }
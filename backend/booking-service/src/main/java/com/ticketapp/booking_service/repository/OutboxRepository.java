@@ -0,0 +1,29 @@
+package com.ticketapp.booking_service.repository;
+
+import com.ticketapp.booking_service.entity.OutboxMessage;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxRepository extends JpaRepository<OutboxMessage, Long> {
+
+    // Due messages that are first in line for their aggregate; rows another instance is already
+    // sending are skipped (SKIP LOCKED), and so are their successors (the head row still exists).
+    // Dead messages are never sent and don't hold up the rest of their aggregate.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m FROM OutboxMessage m WHERE m.dead = false AND m.nextAttemptAt <= :now AND NOT EXISTS (" +
+            "SELECT 1 FROM OutboxMessage p WHERE p.aggregateId = m.aggregateId AND p.dead = false AND p.id < m.id) " +
+            "ORDER BY m.id")
+    List<OutboxMessage> lockDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    List<OutboxMessage> findByDeadTrueOrderByIdDesc(Pageable pageable);
+}
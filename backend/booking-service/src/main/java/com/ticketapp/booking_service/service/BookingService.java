@@ -1,98 +1,278 @@
 package com.ticketapp.booking_service.service;
 
 import com.ticketapp.booking_service.client.EventClient;
+import com.ticketapp.booking_service.client.PaymentClient;
 import com.ticketapp.booking_service.client.TicketClient;
 import com.ticketapp.booking_service.dto.BookingDTO;
+import com.ticketapp.booking_service.dto.BookingPage;
+import com.ticketapp.booking_service.dto.CartDTO;
+import com.ticketapp.booking_service.dto.CheckoutDTO;
+import com.ticketapp.booking_service.dto.CheckoutResult;
 import com.ticketapp.booking_service.entity.Booking;
 import com.ticketapp.booking_service.entity.BookingStatus;
+import com.ticketapp.booking_service.exception.BookingStateException;
 import com.ticketapp.booking_service.exception.ResourceNotFoundException;
 import com.ticketapp.booking_service.repository.BookingRepository;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
 @Service
 public class BookingService {
 
+    private static final Logger log = LoggerFactory.getLogger(BookingService.class);
+
+    private static final int MAX_HISTORY_PAGE = 100;
+
     private final BookingRepository bookingRepository;
     private final EventClient eventClient;
+    private final PaymentClient paymentClient;
     private final TicketClient ticketClient;
+    private final ApplicationEventPublisher events;
+    private final Outbox outbox;
+    private final BookingStats bookingStats;
+    private final BookingSnapshots bookingSnapshots;
+    private final TransactionTemplate transactionTemplate;
 
-    public BookingService(BookingRepository bookingRepository, EventClient eventClient, TicketClient ticketClient) {
+    public BookingService(BookingRepository bookingRepository, EventClient eventClient, PaymentClient paymentClient,
+                          TicketClient ticketClient, ApplicationEventPublisher events, Outbox outbox,
+                          BookingStats bookingStats, BookingSnapshots bookingSnapshots,
+                          PlatformTransactionManager transactionManager) {
         this.bookingRepository = bookingRepository;
+        this.events = events;
+        this.outbox = outbox;
+        this.bookingStats = bookingStats;
+        this.bookingSnapshots = bookingSnapshots;
         this.eventClient = eventClient;
+        this.paymentClient = paymentClient;
         this.ticketClient = ticketClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    // ✅ Booking stats for admin dashboard
+    // ✅ Booking stats for admin dashboard (in-memory counters, see BookingStats)
     public Map<String, Object> getBookingStats() {
-        long totalBookings = bookingRepository.count();
-        long confirmedCount = bookingRepository.findAll().stream()
-                .filter(b -> b.getStatus() == BookingStatus.CONFIRMED)
-                .count();
-        long cancelledCount = bookingRepository.findAll().stream()
-                .filter(b -> b.getStatus() == BookingStatus.CANCELLED)
-                .count();
-        long pendingCount = bookingRepository.findAll().stream()
-                .filter(b -> b.getStatus() == BookingStatus.HOLD)
-                .count();
-
-        double totalRevenue = bookingRepository.findAll().stream()
-                .filter(b -> "SUCCESS".equalsIgnoreCase(b.getPaymentStatus()))
-                .mapToDouble(b -> b.getQuantity() * 500.0) // example ticket price
-                .sum();
-
-        return Map.of(
-                "totalBookings", totalBookings,
-                "confirmedBookings", confirmedCount,
-                "cancelledBookings", cancelledCount,
-                "pendingBookings", pendingCount,
-                "totalRevenue", totalRevenue
-        );
+        return bookingStats.snapshot();
     }
 
-    @Transactional
+    // Not @Transactional: the tickets are reserved before any connection is taken, and the
+    // booking is then written in a short transaction of its own (see placeHolds)
     public Booking createBooking(BookingDTO dto) {
+        Booking booking = newHold(dto.getUserId(), dto, LocalDateTime.now().plusMinutes(5));
+
+        boolean assignedSeating = (dto.getSeatIds() != null && !dto.getSeatIds().isEmpty())
+                || dto.getSeatSection() != null;
+        if (assignedSeating) {
+            // ✅ Hold seats (also decreases available tickets of the tier)
+            Map<String, Object> hold = eventClient.holdSeats(dto.getEventId(), dto.getQuantity(),
+                    dto.getSeatSection(), dto.getTicketType(), dto.getSeatIds());
+            applyReservation(booking, hold);
+            return placeHolds(List.of(booking)).get(0);
+        }
+
+        // ✅ Decrease available tickets of the tier and keep the price it was sold at
+        Map<String, Object> reservation = eventClient.reserveTickets(dto.getEventId(), dto.getQuantity(), dto.getTicketType(), null);
+        applyReservation(booking, reservation);
+        return placeHolds(List.of(booking)).get(0);
+    }
+
+    // ✅ Cart checkout: every line is reserved in one event-service call (all or nothing) and the
+    // resulting bookings share an orderId and a single hold expiry
+    public List<Booking> createCart(CartDTO cart) {
+        List<BookingDTO> items = cart.getItems();
+        if (items == null || items.isEmpty()) {
+            throw new RuntimeException("Cart is empty");
+        }
+
+        List<Map<String, Object>> lines = new ArrayList<>(items.size());
+        for (BookingDTO item : items) {
+            Map<String, Object> line = new HashMap<>();
+            line.put("eventId", item.getEventId());
+            line.put("ticketType", item.getTicketType());
+            line.put("quantity", item.getQuantity());
+            line.put("seatSection", item.getSeatSection());
+            line.put("seatIds", item.getSeatIds());
+            lines.add(line);
+        }
+        List<Map<String, Object>> reservations = eventClient.reserveAll(lines);
+
+        UUID orderId = UUID.randomUUID();
+        LocalDateTime holdExpiry = LocalDateTime.now().plusMinutes(5);
+        List<Booking> bookings = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Booking booking = newHold(cart.getUserId(), items.get(i), holdExpiry);
+            booking.setOrderId(orderId);
+            applyReservation(booking, reservations.get(i));
+            bookings.add(booking);
+        }
+        return placeHolds(bookings);
+    }
+
+    /**
+     * ✅ One-shot checkout for instantly payable bookings (FREE100 / DEVTEST coupons): hold, pay,
+     * confirm and ticket in one request instead of a chain of gateway hops. The hold is cancelled
+     * if the payment is refused. The ticket is requested directly; if that fails the outbox
+     * delivers it later and the result says the ticket is not ready yet.
+     */
+    public CheckoutResult checkout(CheckoutDTO dto) {
+        Booking hold = createBooking(dto);
+
+        Map<String, Object> payment;
+        try {
+            Map<String, Object> request = new HashMap<>();
+            request.put("bookingId", hold.getBookingId());
+            request.put("userId", hold.getUserId());
+            request.put("amount", hold.getAmount());
+            request.put("currency", dto.getCurrency());
+            request.put("couponCode", dto.getCouponCode());
+            payment = paymentClient.payInstant(request);
+        } catch (RuntimeException ex) {
+            transactionTemplate.executeWithoutResult(status -> cancelBookings(List.of(hold.getBookingId())));
+            throw ex;
+        }
+
+        String paymentId = String.valueOf(payment.get("providerPaymentId"));
+        Booking confirmed = transactionTemplate.execute(status -> confirm(
+                bookingRepository.lockById(hold.getBookingId()).orElseThrow(), paymentId));
+
+        boolean ticketReady;
+        try {
+            // Queued by ticket-service; ready only if the ticket already existed
+            Map<String, Object> ticket = ticketClient.generateTicket(bookingSnapshots.snapshot(confirmed));
+            ticketReady = ticket != null && "DONE".equals(String.valueOf(ticket.get("status")));
+        } catch (Exception e) {
+            log.warn("Ticket for booking {} deferred to the outbox", confirmed.getBookingId(), e);
+            ticketReady = false;
+        }
+        return new CheckoutResult(confirmed, String.valueOf(payment.get("id")),
+                "/tickets/download/" + confirmed.getBookingId(), ticketReady);
+    }
+
+    public List<Booking> getOrder(UUID orderId) {
+        return bookingRepository.findByOrderId(orderId);
+    }
+
+    private static Booking newHold(UUID userId, BookingDTO dto, LocalDateTime holdExpiry) {
         Booking booking = new Booking();
-        booking.setUserId(dto.getUserId());
+        booking.setUserId(userId);
         booking.setEventId(dto.getEventId());
         booking.setTicketType(dto.getTicketType());
         booking.setQuantity(dto.getQuantity());
         booking.setStatus(BookingStatus.HOLD);
-        booking.setHoldExpiry(LocalDateTime.now().plusMinutes(5));
+        booking.setHoldExpiry(holdExpiry);
         booking.setPaymentStatus("PENDING");
         booking.setCancellationAllowed(true);
+        return booking;
+    }
 
-        Booking saved = bookingRepository.save(booking);
+    // Copy what event-service actually reserved: seats (which fix the quantity) and unit price
+    private static void applyReservation(Booking booking, Map<String, Object> reservation) {
+        @SuppressWarnings("unchecked")
+        List<String> seats = (List<String>) reservation.get("seatIds");
+        if (seats != null) {
+            booking.setSeatIds(String.join(",", seats));
+            booking.setQuantity(seats.size());
+        }
+        booking.setUnitPrice(unitPrice(reservation));
+    }
 
-        // ✅ Decrease available tickets
-        eventClient.updateTicketAvailability(dto.getEventId(), dto.getQuantity());
-        return saved;
+    // Store holds whose tickets are already reserved; if that fails the tickets are given back
+    private List<Booking> placeHolds(List<Booking> bookings) {
+        try {
+            return transactionTemplate.execute(status -> {
+                List<Booking> saved = bookingRepository.saveAll(bookings);
+                for (Booking b : saved) {
+                    events.publishEvent(new HoldPlacedEvent(b.getBookingId(), b.getHoldExpiry()));
+                }
+                events.publishEvent(new BookingTransition(null, BookingStatus.HOLD, saved.size(), 0));
+                return saved;
+            });
+        } catch (RuntimeException ex) {
+            for (Booking b : bookings) {
+                try {
+                    if (b.getSeatIds() != null) {
+                        eventClient.releaseSeats(b.getEventId(), b.getTicketType(), null, List.of(b.getSeatIds().split(",")));
+                    } else {
+                        eventClient.reserveTickets(b.getEventId(), -b.getQuantity(), b.getTicketType(), null);
+                    }
+                } catch (Exception undo) {
+                    log.error("Failed to give back {} tickets for event {} after the holds were not stored",
+                            b.getQuantity(), b.getEventId(), undo);
+                }
+            }
+            throw ex;
+        }
     }
 
     @Transactional
     public Booking confirmBooking(UUID bookingId, String paymentId) {
-        Booking booking = bookingRepository.findById(bookingId)
+        Booking booking = bookingRepository.lockById(bookingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found"));
+        return confirm(booking, paymentId);
+    }
+
+    // ✅ Confirm every booking of a cart with the one payment that covered it
+    @Transactional
+    public List<Booking> confirmOrder(UUID orderId, String paymentId) {
+        List<Booking> bookings = bookingRepository.lockByOrderId(orderId);
+        if (bookings.isEmpty()) {
+            throw new ResourceNotFoundException("Order not found");
+        }
+        List<Booking> confirmed = new ArrayList<>(bookings.size());
+        for (Booking b : bookings) {
+            confirmed.add(confirm(b, paymentId));
+        }
+        return confirmed;
+    }
+
+    @Transactional
+    public List<Booking> cancelOrder(UUID orderId) {
+        List<UUID> ids = bookingRepository.findByOrderId(orderId).stream().map(Booking::getBookingId).toList();
+        if (ids.isEmpty()) {
+            throw new ResourceNotFoundException("Order not found");
+        }
+        cancelBookings(ids);
+        return bookingRepository.findByOrderId(orderId);
+    }
 
+    private Booking confirm(Booking booking, String paymentId) {
+        // Confirming again for the same payment changes nothing and must not issue a second ticket
+        if (booking.getStatus() == BookingStatus.CONFIRMED && Objects.equals(booking.getPaymentId(), paymentId)) {
+            return booking;
+        }
+        // Only a live hold still has its tickets; a cancelled or expired one gave them back
+        if (booking.getStatus() != BookingStatus.HOLD) {
+            throw new BookingStateException("Booking " + booking.getBookingId() + " is " + booking.getStatus()
+                    + ", only a HOLD can be confirmed");
+        }
+        if (booking.getHoldExpiry() != null && !booking.getHoldExpiry().isAfter(LocalDateTime.now())) {
+            throw new BookingStateException("Hold on booking " + booking.getBookingId() + " expired at "
+                    + booking.getHoldExpiry());
+        }
+        BookingStatus from = booking.getStatus();
+        double paidBefore = paidRevenue(booking);
         booking.setStatus(BookingStatus.CONFIRMED);
         booking.setPaymentStatus("SUCCESS");
         booking.setPaymentId(paymentId);
+        events.publishEvent(new BookingTransition(from, BookingStatus.CONFIRMED, 1, paidRevenue(booking) - paidBefore));
 
         Booking saved = bookingRepository.save(booking);
-
-        try {
-            ticketClient.generateTicket(saved.getBookingId());
-        } catch (Exception e) {
-            System.err.println("Ticket generation failed: " + e.getMessage());
-        }
-
+        // ✅ Ticket is generated by the outbox relay once this commits
+        outbox.generateTicket(saved);
         return saved;
     }
 
@@ -100,38 +280,84 @@ public class BookingService {
     public Booking cancelBooking(UUID bookingId) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found"));
+        cancelBookings(List.of(bookingId));
+        return bookingRepository.findById(bookingId).orElse(booking);
+    }
 
-        booking.setStatus(BookingStatus.CANCELLED);
-        booking.setPaymentStatus("CANCELLED");
-
-        // ✅ Release tickets
-        eventClient.updateTicketAvailability(booking.getEventId(), -booking.getQuantity());
-        return bookingRepository.save(booking);
+    // ✅ Cancel many bookings at once; already cancelled ones are left alone so tickets go back once
+    @Transactional
+    public List<Booking> cancelBookings(List<UUID> bookingIds) {
+        if (bookingIds.isEmpty()) return List.of();
+        List<Booking> bookings = bookingRepository.lockCancellable(bookingIds);
+        for (Booking b : bookings) {
+            events.publishEvent(new BookingTransition(b.getStatus(), BookingStatus.CANCELLED, 1, -paidRevenue(b)));
+            b.setStatus(BookingStatus.CANCELLED);
+            b.setPaymentStatus("CANCELLED");
+        }
+        // ✅ Release tickets (through the outbox, one call per event and tier)
+        outbox.releaseTickets(bookings);
+        return bookingRepository.saveAll(bookings);
     }
 
     public List<Booking> getBookingsByUser(UUID userId) {
-        return bookingRepository.findByUserId(userId);
+        return bookingRepository.findByUserIdOrderByCreatedAtDescBookingIdDesc(userId);
+    }
+
+    // ✅ Booking history, newest first, one keyset page at a time (same cost for the first page of any user)
+    public BookingPage getBookingHistory(UUID userId, String cursor, int limit, List<BookingStatus> statuses) {
+        int size = Math.min(Math.max(limit, 1), MAX_HISTORY_PAGE);
+        LocalDateTime beforeCreatedAt = null;
+        UUID beforeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sep = key.indexOf('|');
+                beforeCreatedAt = LocalDateTime.parse(key.substring(0, sep));
+                beforeId = UUID.fromString(key.substring(sep + 1));
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Invalid history cursor");
+            }
+        }
+
+        // One extra row tells us whether there is a next page
+        List<Booking> rows = bookingRepository.findHistoryPage(userId, statuses, beforeCreatedAt, beforeId, size + 1);
+        if (rows.size() <= size) {
+            return new BookingPage(rows, null);
+        }
+        List<Booking> items = new ArrayList<>(rows.subList(0, size));
+        Booking last = items.get(size - 1);
+        String key = last.getCreatedAt() + "|" + last.getBookingId();
+        return new BookingPage(items, Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8)));
     }
 
-    // ✅ Auto-cancel HOLD bookings older than 5 minutes
-    @Scheduled(fixedRate = 60000)
+    // ✅ Cancel the HOLDs that are past their deadline (called by HoldExpiryScheduler with a batch of ids).
+    // Holds confirmed, cancelled or extended in the meantime are not selected.
     @Transactional
-    public void autoCancelExpiredHolds() {
-        bookingRepository.findAll().stream()
-                .filter(b -> b.getStatus() == BookingStatus.HOLD
-                        && b.getHoldExpiry() != null
-                        && b.getHoldExpiry().isBefore(LocalDateTime.now()))
-                .forEach(b -> {
-                    b.setStatus(BookingStatus.CANCELLED);
-                    b.setPaymentStatus("EXPIRED");
-                    try {
-                        eventClient.updateTicketAvailability(b.getEventId(), -b.getQuantity());
-                    } catch (Exception e) {
-                        System.err.println("Failed to release tickets: " + e.getMessage());
-                    }
-                    bookingRepository.save(b);
-                });
+    public int expireHolds(List<UUID> bookingIds) {
+        if (bookingIds.isEmpty()) return 0;
+        List<Booking> expired = bookingRepository.lockExpiredHolds(bookingIds, LocalDateTime.now());
+        for (Booking b : expired) {
+            b.setStatus(BookingStatus.CANCELLED);
+            b.setPaymentStatus("EXPIRED");
+        }
+        bookingRepository.saveAll(expired);
+        outbox.releaseTickets(expired);
+        if (!expired.isEmpty()) {
+            events.publishEvent(new BookingTransition(BookingStatus.HOLD, BookingStatus.CANCELLED, expired.size(), 0));
+        }
+        return expired.size();
+    }
+
+    // What a booking contributes to revenue: its amount once paid
+    private static double paidRevenue(Booking b) {
+        return "SUCCESS".equalsIgnoreCase(b.getPaymentStatus()) ? b.getAmount() : 0;
+    }
+
+    private static Double unitPrice(Map<String, Object> reservation) {
+        Object price = reservation.get("unitPrice");
+        return price instanceof Number n ? n.doubleValue() : null;
     }
+
     public Optional<Booking> getBookingById(UUID id) {
         return bookingRepository.findById(id);
     }
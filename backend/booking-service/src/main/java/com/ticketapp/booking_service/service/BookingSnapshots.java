@@ -0,0 +1,76 @@
+package com.ticketapp.booking_service.service;
+
+import com.ticketapp.booking_service.entity.Booking;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Signed copy of a booking as it was confirmed: the body of a ticket request. ticket-service
+ * issues the ticket from these values after checking the HMAC, instead of asking booking-service
+ * about the booking again. The key (tickets.snapshot-secret) is shared by the two services;
+ * ticket-service has the same FIELDS and canonical form.
+ */
+@Component
+public class BookingSnapshots {
+
+    private static final String HMAC = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+
+    // Signed in this order, one value per line, missing values as empty lines
+    public static final List<String> FIELDS = List.of(
+            "bookingId", "userId", "eventId", "ticketType", "quantity", "seatIds", "amount", "paymentId", "status");
+
+    private final ThreadLocal<Mac> macs;
+
+    public BookingSnapshots(@Value("${tickets.snapshot-secret:}") String secret) {
+        if (secret.getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("tickets.snapshot-secret (TICKET_SNAPSHOT_SECRET) must be set to a random value of at least "
+                    + MIN_SECRET_BYTES + " bytes");
+        }
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(HMAC);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException("HMAC not available", ex);
+            }
+        });
+    }
+
+    // ✅ Values are strings, so both sides sign exactly the text that travels
+    public Map<String, Object> snapshot(Booking booking) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("bookingId", Objects.toString(booking.getBookingId(), null));
+        body.put("userId", Objects.toString(booking.getUserId(), null));
+        body.put("eventId", Objects.toString(booking.getEventId(), null));
+        body.put("ticketType", booking.getTicketType());
+        body.put("quantity", String.valueOf(booking.getQuantity()));
+        body.put("seatIds", booking.getSeatIds());
+        body.put("amount", String.valueOf(booking.getAmount()));
+        body.put("paymentId", booking.getPaymentId());
+        body.put("status", Objects.toString(booking.getStatus(), null));
+        body.put("signature", sign(body));
+        return body;
+    }
+
+    private String sign(Map<String, Object> body) {
+        StringBuilder canonical = new StringBuilder();
+        for (String field : FIELDS) {
+            canonical.append(Objects.toString(body.get(field), "")).append('\n');
+        }
+        byte[] mac = macs.get().doFinal(canonical.toString().getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac);
+    }
+}
@@ -0,0 +1,128 @@
+package com.ticketapp.booking_service.service;
+
+import com.ticketapp.booking_service.entity.BookingStatus;
+import com.ticketapp.booking_service.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Booking counts per status and paid revenue for the admin dashboard, kept in memory.
+ *
+ * Every committed status change adjusts the counters, so reading them costs nothing however big
+ * the table gets. A periodic reconcile replaces them with one GROUP BY over (status, payment
+ * status), which corrects drift from changes made by other instances. Changes that commit while
+ * the aggregate runs are replayed on top of it; one that the aggregate already saw is counted
+ * twice until the next reconcile.
+ */
+@Service
+public class BookingStats {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingStats.class);
+
+    private static final class Totals {
+        final long[] bookings = new long[BookingStatus.values().length];
+        double revenue;
+
+        void apply(BookingTransition t) {
+            if (t.from() != null) bookings[t.from().ordinal()] -= t.bookings();
+            bookings[t.to().ordinal()] += t.bookings();
+            revenue += t.revenueDelta();
+        }
+
+        void add(Totals other) {
+            for (int i = 0; i < bookings.length; i++) bookings[i] += other.bookings[i];
+            revenue += other.revenue;
+        }
+    }
+
+    private final BookingRepository bookingRepository;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Totals totals = new Totals();
+    private Totals sinceReconcile;
+
+    public BookingStats(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTransition(BookingTransition t) {
+        lock.lock();
+        try {
+            totals.apply(t);
+            if (sinceReconcile != null) sinceReconcile.apply(t);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ✅ Rebuild the counters from the aggregate query
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${bookings.stats.reconcile-interval-ms:300000}",
+            initialDelayString = "${bookings.stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        lock.lock();
+        try {
+            sinceReconcile = new Totals();
+        } finally {
+            lock.unlock();
+        }
+        Totals fresh = new Totals();
+        try {
+            for (BookingRepository.StatusTotals row : bookingRepository.totalsByStatus()) {
+                fresh.bookings[row.getStatus().ordinal()] += row.getBookings();
+                if ("SUCCESS".equals(row.getPaymentStatus())) {
+                    fresh.revenue += row.getRevenue();
+                }
+            }
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                sinceReconcile = null;
+            } finally {
+                lock.unlock();
+            }
+            log.error("Booking stats reconcile failed, counters stay as they are until the next run", e);
+            return;
+        }
+        lock.lock();
+        try {
+            fresh.add(sinceReconcile);
+            totals = fresh;
+            sinceReconcile = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        long[] bookings;
+        double revenue;
+        lock.lock();
+        try {
+            bookings = totals.bookings.clone();
+            revenue = totals.revenue;
+        } finally {
+            lock.unlock();
+        }
+        long total = 0;
+        for (long n : bookings) total += n;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("totalBookings", total);
+        stats.put("confirmedBookings", bookings[BookingStatus.CONFIRMED.ordinal()]);
+        stats.put("cancelledBookings", bookings[BookingStatus.CANCELLED.ordinal()]);
+        stats.put("pendingBookings", bookings[BookingStatus.HOLD.ordinal()]);
+        stats.put("totalRevenue", revenue);
+        return stats;
+    }
+}
@@ -0,0 +1,6 @@
+package com.ticketapp.booking_service.service;
+
+import com.ticketapp.booking_service.entity.BookingStatus;
+
+// Published when bookings change status (from is null for new bookings); stats apply it after commit
+public record BookingTransition(BookingStatus from, BookingStatus to, long bookings, double revenueDelta) { }
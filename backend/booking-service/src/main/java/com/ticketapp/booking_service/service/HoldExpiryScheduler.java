@@ -0,0 +1,127 @@
+package com.ticketapp.booking_service.service;
+
+import com.ticketapp.booking_service.entity.BookingStatus;
+import com.ticketapp.booking_service.repository.BookingRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expires HOLD bookings at their deadline.
+ *
+ * Active holds sit in a {@link DelayQueue}; a single worker takes each one as soon as it is due,
+ * so the work per cycle is the number of holds expiring, not the size of the bookings table.
+ * The queue is rebuilt from the (status, hold_expiry) index at startup. A slow indexed sweep
+ * catches holds this instance never saw (created by another instance, or lost in a crash).
+ * Holds that come due together are expired as one batch (one transaction, one release per event).
+ * Confirmed or cancelled bookings are simply skipped when their entry comes up.
+ */
+@Service
+public class HoldExpiryScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldExpiryScheduler.class);
+
+    private record Hold(UUID bookingId, long dueAtMillis) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtMillis, ((Hold) other).dueAtMillis);
+        }
+    }
+
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final DelayQueue<Hold> queue = new DelayQueue<>();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+
+    @Value("${bookings.hold-expiry.sweep-batch:100}")
+    private int sweepBatch;
+
+    @Value("${bookings.hold-expiry.expire-batch:500}")
+    private int expireBatch;
+
+    public HoldExpiryScheduler(BookingService bookingService, BookingRepository bookingRepository) {
+        this.bookingService = bookingService;
+        this.bookingRepository = bookingRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        bookingRepository.findByStatus(BookingStatus.HOLD)
+                .forEach(h -> schedule(h.getBookingId(), h.getHoldExpiry()));
+        worker.execute(this::run);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    // Only holds that were actually committed get queued
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onHoldPlaced(HoldPlacedEvent event) {
+        schedule(event.bookingId(), event.holdExpiry());
+    }
+
+    // ✅ Safety net: expire overdue holds found through the index, a batch at a time
+    @Scheduled(fixedDelayString = "${bookings.hold-expiry.sweep-interval-ms:60000}")
+    public void sweep() {
+        List<BookingRepository.HoldView> overdue = bookingRepository.findByStatusAndHoldExpiryBefore(
+                BookingStatus.HOLD, LocalDateTime.now(), PageRequest.of(0, sweepBatch));
+        expire(overdue.stream().map(BookingRepository.HoldView::getBookingId).toList());
+    }
+
+    private void schedule(UUID bookingId, LocalDateTime holdExpiry) {
+        if (holdExpiry == null) return;
+        // +1 ms: never fire before the (sub-millisecond) deadline the expiry UPDATE checks
+        long due = holdExpiry.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + 1;
+        queue.put(new Hold(bookingId, due));
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                List<Hold> due = new ArrayList<>();
+                due.add(queue.take());
+                queue.drainTo(due, expireBatch - 1);
+                expire(due.stream().map(Hold::bookingId).toList());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void expire(List<UUID> bookingIds) {
+        if (bookingIds.isEmpty()) return;
+        try {
+            bookingService.expireHolds(bookingIds);
+        } catch (Exception e) {
+            // The sweep picks these up again
+            log.error("Failed to expire {} holds, left to the sweep", bookingIds.size(), e);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.ticketapp.booking_service.service;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Published when a booking is put on HOLD; the expiry queue picks it up after commit
+public record HoldPlacedEvent(UUID bookingId, LocalDateTime holdExpiry) { }
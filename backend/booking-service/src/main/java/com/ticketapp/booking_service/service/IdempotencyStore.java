@@ -0,0 +1,171 @@
+package com.ticketapp.booking_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketapp.booking_service.entity.IdempotencyRecord;
+import com.ticketapp.booking_service.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Replays the response of a request that carried an Idempotency-Key instead of running it again.
+ *
+ * The first request with a key claims it in the idempotency_keys table before doing the work; the
+ * primary key makes that claim unique across every instance of the service, so a duplicate sent to
+ * another instance, or after a restart, waits for the stored response instead of running again.
+ * Only successful responses are kept, so a failed request can be retried. A key reused for a
+ * different request gets 422. Keys expire after a TTL; a claim whose instance died mid-request is
+ * taken over once it is older than idempotency.abandoned-seconds.
+ *
+ * payment-service has an identical copy: the services are built and deployed on their own and
+ * share no library module, so keep the two in step when changing either.
+ */
+@Service
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final long POLL_MILLIS = 100;
+
+    private final IdempotencyRecordRepository records;
+    private final ObjectMapper objectMapper;
+
+    @Value("${idempotency.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    @Value("${idempotency.wait-seconds:30}")
+    private long waitSeconds;
+
+    @Value("${idempotency.abandoned-seconds:120}")
+    private long abandonedSeconds;
+
+    public IdempotencyStore(IdempotencyRecordRepository records, ObjectMapper objectMapper) {
+        this.records = records;
+        this.objectMapper = objectMapper;
+    }
+
+    // ✅ Run the action once per key; operation + request identify what the key was first used for
+    public <T> ResponseEntity<T> execute(String key, String operation, Object request, Supplier<ResponseEntity<T>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        String fingerprint = fingerprint(operation, request);
+        UUID claim = UUID.randomUUID();
+        long deadline = System.currentTimeMillis() + waitSeconds * 1000;
+
+        while (true) {
+            if (records.insertIfAbsent(key, fingerprint, claim, LocalDateTime.now()) == 1) {
+                return run(key, claim, action);
+            }
+            Optional<IdempotencyRecord> existing = records.findById(key);
+            if (existing.isEmpty()) {
+                continue; // freed between the insert and the read
+            }
+            IdempotencyRecord record = existing.get();
+            if (!record.getFingerprint().equals(fingerprint)) {
+                return ResponseEntity.unprocessableEntity().build();
+            }
+            LocalDateTime now = LocalDateTime.now();
+            if (record.getCreatedAt().isBefore(now.minusMinutes(ttlMinutes))) {
+                records.release(key, record.getClaim());
+                continue;
+            }
+            if (record.getResponseStatus() != null) {
+                return replay(record);
+            }
+            if (record.getCreatedAt().isBefore(now.minusSeconds(abandonedSeconds))) {
+                log.warn("Idempotency-Key {} was claimed at {} and never completed; running the request again",
+                        key, record.getCreatedAt());
+                records.release(key, record.getClaim());
+                continue;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+        }
+    }
+
+    private <T> ResponseEntity<T> run(String key, UUID claim, Supplier<ResponseEntity<T>> action) {
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException ex) {
+            records.release(key, claim);
+            throw ex;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            records.release(key, claim);
+            return response;
+        }
+        URI location = response.getHeaders().getLocation();
+        try {
+            records.complete(key, claim, response.getStatusCode().value(),
+                    location == null ? null : location.toString(),
+                    response.hasBody() ? objectMapper.writeValueAsString(response.getBody()) : null);
+        } catch (JsonProcessingException | RuntimeException ex) {
+            // The work is done; a retry will find the claim abandoned and run it again
+            log.error("Failed to store the response for Idempotency-Key {}", key, ex);
+        }
+        return response;
+    }
+
+    // Replayed bodies are the stored JSON, which serializes exactly as the original body did
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> replay(IdempotencyRecord record) {
+        HttpHeaders headers = new HttpHeaders();
+        if (record.getResponseLocation() != null) {
+            headers.setLocation(URI.create(record.getResponseLocation()));
+        }
+        Object body;
+        try {
+            body = record.getResponseBody() == null ? null : objectMapper.readTree(record.getResponseBody());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unreadable stored response for Idempotency-Key " + record.getKey(), ex);
+        }
+        return (ResponseEntity<T>) new ResponseEntity<>(body, headers, HttpStatus.valueOf(record.getResponseStatus()));
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:600000}")
+    public void purge() {
+        try {
+            records.deleteOlderThan(LocalDateTime.now().minusMinutes(ttlMinutes));
+        } catch (RuntimeException ex) {
+            log.warn("Failed to purge expired Idempotency-Keys", ex);
+        }
+    }
+
+    private String fingerprint(String operation, Object request) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(operation.getBytes(StandardCharsets.UTF_8));
+            sha.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot fingerprint request", ex);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.ticketapp.booking_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketapp.booking_service.client.EventClient;
+import com.ticketapp.booking_service.client.TicketClient;
+import com.ticketapp.booking_service.entity.Booking;
+import com.ticketapp.booking_service.entity.OutboxMessage;
+import com.ticketapp.booking_service.entity.OutboxType;
+import com.ticketapp.booking_service.repository.OutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Transactional outbox for the calls booking changes cause in other services.
+ *
+ * Callers add messages inside the transaction that changes the bookings, so a message exists
+ * exactly when the change committed, and no request waits on event-service or ticket-service.
+ * Ticket releases are summed per (event, tier, seated), so a burst of 10k expired holds becomes
+ * one call per event.
+ *
+ * The relay claims a batch of due messages with a short lease (SKIP LOCKED, so instances split
+ * the work), sends them without holding a connection, then deletes what was delivered and backs
+ * off what failed. Only the oldest message of each aggregate is eligible, which keeps delivery
+ * in order per booking. Releases commute, so each is its own aggregate and one that keeps
+ * failing doesn't hold up the others. After bookings.outbox.max-attempts a message is marked
+ * dead and waits for an admin retry. Delivery is at least once: the message id travels as
+ * requestId (releases, deduplicated in event-service's processed_requests table) or the
+ * bookingId is the natural key (tickets), so receivers apply it once.
+ */
+@Service
+public class Outbox {
+
+    private static final Logger log = LoggerFactory.getLogger(Outbox.class);
+
+    private record Key(UUID eventId, String ticketType, boolean seated) { }
+
+    private final OutboxRepository outboxRepository;
+    private final EventClient eventClient;
+    private final TicketClient ticketClient;
+    private final BookingSnapshots bookingSnapshots;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${bookings.outbox.relay-batch:100}")
+    private int relayBatch;
+
+    @Value("${bookings.outbox.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${bookings.outbox.max-backoff-seconds:300}")
+    private long maxBackoffSeconds;
+
+    @Value("${bookings.outbox.max-attempts:30}")
+    private int maxAttempts;
+
+    public Outbox(OutboxRepository outboxRepository, EventClient eventClient, TicketClient ticketClient,
+                  BookingSnapshots bookingSnapshots, ObjectMapper objectMapper,
+                  PlatformTransactionManager transactionManager) {
+        this.outboxRepository = outboxRepository;
+        this.eventClient = eventClient;
+        this.ticketClient = ticketClient;
+        this.bookingSnapshots = bookingSnapshots;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // ✅ Queue the tickets of these bookings for release (call inside the booking transaction)
+    public void releaseTickets(List<Booking> bookings) {
+        Map<Key, OutboxMessage> releases = new LinkedHashMap<>();
+        for (Booking b : bookings) {
+            boolean seated = b.getSeatIds() != null && !b.getSeatIds().isBlank();
+            OutboxMessage m = releases.computeIfAbsent(new Key(b.getEventId(), b.getTicketType(), seated), k -> {
+                OutboxMessage created = new OutboxMessage();
+                created.setType(OutboxType.RELEASE_TICKETS);
+                created.setAggregateId(UUID.randomUUID());
+                created.setEventId(k.eventId());
+                created.setTicketType(k.ticketType());
+                return created;
+            });
+            m.setQuantity(m.getQuantity() + b.getQuantity());
+            if (seated) {
+                m.setSeatIds(m.getSeatIds() == null ? b.getSeatIds() : m.getSeatIds() + "," + b.getSeatIds());
+            }
+        }
+        outboxRepository.saveAll(releases.values());
+    }
+
+    // ✅ Queue ticket generation for a confirmed booking (call inside the booking transaction);
+    // the signed snapshot is taken now, so the ticket shows the booking as it was confirmed
+    public void generateTicket(Booking booking) {
+        OutboxMessage m = new OutboxMessage();
+        m.setType(OutboxType.GENERATE_TICKET);
+        m.setAggregateId(booking.getBookingId());
+        m.setBookingId(booking.getBookingId());
+        try {
+            m.setPayload(objectMapper.writeValueAsString(bookingSnapshots.snapshot(booking)));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to write ticket request for booking " + booking.getBookingId(), ex);
+        }
+        outboxRepository.save(m);
+    }
+
+    // ✅ Deliver due messages, a batch at a time, until the backlog is drained
+    @Scheduled(fixedDelayString = "${bookings.outbox.relay-interval-ms:500}")
+    public void relay() {
+        int claimed;
+        do {
+            claimed = relayBatch();
+        } while (claimed == relayBatch);
+    }
+
+    private int relayBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxMessage> batch = transactionTemplate.execute(status -> {
+            List<OutboxMessage> due = outboxRepository.lockDue(now, PageRequest.of(0, relayBatch));
+            // Lease: other relays leave these alone until they are delivered or the lease runs out
+            due.forEach(m -> m.setNextAttemptAt(now.plusSeconds(leaseSeconds)));
+            return due;
+        });
+        if (batch == null || batch.isEmpty()) return 0;
+
+        List<Long> delivered = new ArrayList<>();
+        Map<Long, String> failed = new LinkedHashMap<>();
+        for (OutboxMessage m : batch) {
+            try {
+                send(m);
+                delivered.add(m.getId());
+            } catch (Exception e) {
+                String error = Objects.toString(e.getMessage(), e.getClass().getSimpleName());
+                failed.put(m.getId(), error.length() > 1000 ? error.substring(0, 1000) : error);
+                log.warn("Outbox {} {} failed (attempt {})", m.getType(), m.getId(), m.getAttempts() + 1, e);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxRepository.deleteAllByIdInBatch(delivered);
+            for (OutboxMessage m : outboxRepository.findAllById(failed.keySet())) {
+                m.setAttempts(m.getAttempts() + 1);
+                m.setLastError(failed.get(m.getId()));
+                if (m.getAttempts() >= maxAttempts) {
+                    m.setDead(true);
+                    log.error("Outbox {} {} is dead after {} attempts, waiting for an admin retry: {}",
+                            m.getType(), m.getId(), m.getAttempts(), m.getLastError());
+                    continue;
+                }
+                long backoff = Math.min(1L << Math.min(m.getAttempts(), 20), maxBackoffSeconds);
+                m.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+            }
+        });
+        return batch.size();
+    }
+
+    public List<OutboxMessage> deadMessages(int limit) {
+        return outboxRepository.findByDeadTrueOrderByIdDesc(PageRequest.of(0, Math.max(1, Math.min(limit, 100))));
+    }
+
+    // ✅ Admin: give a dead message a fresh set of attempts
+    public OutboxMessage retry(Long id) {
+        return transactionTemplate.execute(status -> {
+            OutboxMessage m = outboxRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("No outbox message with ID: " + id));
+            if (!m.isDead()) {
+                throw new RuntimeException("Outbox message " + id + " is not dead");
+            }
+            m.setDead(false);
+            m.setAttempts(0);
+            m.setNextAttemptAt(LocalDateTime.now());
+            return m;
+        });
+    }
+
+    private void send(OutboxMessage m) {
+        switch (m.getType()) {
+            case RELEASE_TICKETS -> {
+                String requestId = "outbox-" + m.getId();
+                if (m.getSeatIds() != null) {
+                    eventClient.releaseSeats(m.getEventId(), m.getTicketType(), requestId, List.of(m.getSeatIds().split(",")));
+                } else {
+                    eventClient.reserveTickets(m.getEventId(), -m.getQuantity(), m.getTicketType(), requestId);
+                }
+            }
+            // Messages queued before snapshots were stored: ticket-service looks the booking up
+            case GENERATE_TICKET -> ticketClient.generateTicket(m.getPayload() != null
+                    ? readPayload(m)
+                    : TicketClient.payload(m.getBookingId()));
+        }
+    }
+
+    private Map<String, Object> readPayload(OutboxMessage m) {
+        try {
+            return objectMapper.readValue(m.getPayload(), new TypeReference<Map<String, Object>>() { });
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unreadable payload in outbox message " + m.getId(), ex);
+        }
+    }
+}
@@ -1,12 +1,32 @@
 package com.ticketapp.event_service.controller;
 
+import com.ticketapp.event_service.dto.CatalogFilter;
+import com.ticketapp.event_service.dto.CatalogPage;
+import com.ticketapp.event_service.dto.EventSearchHit;
+import com.ticketapp.event_service.dto.EventSummary;
+import com.ticketapp.event_service.dto.ReservationLine;
+import com.ticketapp.event_service.dto.SeatSectionRequest;
+import com.ticketapp.event_service.dto.TicketReservation;
+import com.ticketapp.event_service.dto.TicketTierRequest;
 import com.ticketapp.event_service.entity.Event;
+import com.ticketapp.event_service.entity.TicketTier;
 import com.ticketapp.event_service.service.EventService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -19,11 +39,96 @@ public class EventController {
         this.service = service;
     }
 
-    // ✅ Fetch all events
+    // ✅ Fetch all events (conditional GET: 304 while no event was added, changed, removed or sold)
     @GetMapping("/allEvents")
     public ResponseEntity<List<Event>> getAllEvents() {
         List<Event> events = service.getAllEvents();
-        return ResponseEntity.ok(events);
+        StringBuilder state = new StringBuilder();
+        for (Event e : events) {
+            state.append(e.getEventId()).append(':').append(e.getVersion()).append(':').append(e.getTicketsSold()).append('\n');
+        }
+        return ResponseEntity.ok().eTag(digest(state)).body(events);
+    }
+
+    // ✅ Paged catalog (slim list view); full details come from GET /events/{id}
+    @GetMapping("/catalog")
+    public ResponseEntity<?> getCatalog(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String eventType,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            CatalogFilter filter = new CatalogFilter(location, eventType, status, from, to);
+            CatalogPage page = service.getCatalog(cursor, limit, filter);
+            return ResponseEntity.ok().eTag(catalogETag(page)).body(page);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    // ✅ Browsing (same paging and response as /catalog, each backed by its own index)
+    @GetMapping("/upcoming")
+    public ResponseEntity<?> getUpcoming(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String eventType,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            CatalogPage page = service.getUpcoming(cursor, limit, new CatalogFilter(location, eventType, status, null, to));
+            return ResponseEntity.ok().eTag(catalogETag(page)).body(page);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    @GetMapping("/location/{location}")
+    public ResponseEntity<?> getByLocation(
+            @PathVariable String location,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return getCatalog(cursor, limit, location, null, null, from, to);
+    }
+
+    @GetMapping("/type/{eventType}")
+    public ResponseEntity<?> getByType(
+            @PathVariable String eventType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return getCatalog(cursor, limit, null, eventType, null, from, to);
+    }
+
+    @GetMapping("/status/{status}")
+    public ResponseEntity<?> getByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return getCatalog(cursor, limit, null, null, status, from, to);
+    }
+
+    // ✅ Ranked full-text search; the last word also matches as a prefix
+    @GetMapping("/search")
+    public ResponseEntity<List<EventSearchHit>> search(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(service.search(query, limit));
+    }
+
+    @GetMapping("/search/suggest")
+    public ResponseEntity<List<String>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(service.suggest(prefix, limit));
     }
 
     // ✅ Add event (restricted to HOST)
@@ -37,13 +142,21 @@ public class EventController {
         }
     }
 
-    // ✅ Get event by ID
+    // ✅ Get event by ID (conditional GET: 304 when If-None-Match / If-Modified-Since still match)
     @GetMapping("/{id}")
     public ResponseEntity<Event> getEvent(@PathVariable UUID id) {
-        Event event = service.getEventById(id);
-        return (event != null)
-                ? ResponseEntity.ok(event)
-                : ResponseEntity.notFound().build();
+        Event event = service.findEventById(id);
+        if (event == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .eTag(event.getVersion() + "-" + event.getTicketsSold());
+        // A hot event sells from memory without touching updatedAt, so only the ETag tracks it
+        if (event.getUpdatedAt() != null && !event.isHotMode()) {
+            ok.lastModified(event.getUpdatedAt().atZone(ZoneId.systemDefault()));
+        }
+        return ok.body(event);
     }
 
     // ✅ Delete event by ID
@@ -61,4 +174,112 @@ public class EventController {
         Event updatedEvent = service.updateTicketAvailability(id, ticketsSold);
         return ResponseEntity.ok(updatedEvent);
     }
+
+    // ✅ Live "tickets left" for one or more events (server-sent events, coalesced per tick)
+    @GetMapping(value = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAvailability(@RequestParam List<UUID> eventIds) {
+        try {
+            return ResponseEntity.ok(service.streamAvailability(eventIds));
+        } catch (IllegalArgumentException ex) {
+            // Must stay typed as SseEmitter to be streamed, so no error body here
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // ✅ Hot event mode (in-memory inventory with batched flushes)
+    @PutMapping("/{id}/hot")
+    public ResponseEntity<Map<String, Object>> setHotMode(
+            @PathVariable UUID id,
+            @RequestParam boolean enabled) {
+        return ResponseEntity.ok(service.setHotMode(id, enabled));
+    }
+
+    @GetMapping("/{id}/hot/metrics")
+    public ResponseEntity<Map<String, Object>> getHotModeMetrics(@PathVariable UUID id) {
+        return ResponseEntity.ok(service.getHotModeMetrics(id));
+    }
+
+    // ✅ Seat map (sections stored as bitsets)
+    @PostMapping("/{id}/seatmap")
+    public ResponseEntity<List<Map<String, Object>>> createSeatMap(
+            @PathVariable UUID id,
+            @RequestBody List<SeatSectionRequest> sections) {
+        return new ResponseEntity<>(service.createSeatMap(id, sections), HttpStatus.CREATED);
+    }
+
+    @GetMapping("/{id}/seatmap")
+    public ResponseEntity<List<Map<String, Object>>> getSeatMap(@PathVariable UUID id) {
+        return ResponseEntity.ok(service.getSeatMap(id));
+    }
+
+    // ✅ Hold the best N adjacent seats, or the exact seats given in the body
+    @PostMapping("/{id}/seats/hold")
+    public ResponseEntity<TicketReservation> holdSeats(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "0") int quantity,
+            @RequestParam(required = false) String section,
+            @RequestParam(required = false) String ticketType,
+            @RequestBody(required = false) List<String> seatIds) {
+        return ResponseEntity.ok(service.holdSeats(id, quantity, section, seatIds, ticketType));
+    }
+
+    @PostMapping("/{id}/seats/release")
+    public ResponseEntity<List<String>> releaseSeats(
+            @PathVariable UUID id,
+            @RequestParam(required = false) String ticketType,
+            @RequestParam(required = false) String requestId,
+            @RequestBody List<String> seatIds) {
+        return ResponseEntity.ok(service.releaseSeats(id, seatIds, ticketType, requestId));
+    }
+
+    // ✅ Ticket tiers with their own inventory and price
+    @PutMapping("/{id}/tiers")
+    public ResponseEntity<List<TicketTier>> saveTiers(
+            @PathVariable UUID id,
+            @RequestBody List<TicketTierRequest> tiers) {
+        return ResponseEntity.ok(service.saveTiers(id, tiers));
+    }
+
+    @GetMapping("/{id}/tiers")
+    public ResponseEntity<List<TicketTier>> getTiers(@PathVariable UUID id) {
+        return ResponseEntity.ok(service.getTiers(id));
+    }
+
+    // ✅ Reserve (positive quantity) or release (negative) tickets of a tier; returns the unit price.
+    // Callers that retry pass a requestId so a repeated call is not applied twice.
+    @PostMapping("/{id}/reservations")
+    public ResponseEntity<TicketReservation> reserve(
+            @PathVariable UUID id,
+            @RequestParam int quantity,
+            @RequestParam(required = false) String ticketType,
+            @RequestParam(required = false) String requestId) {
+        return ResponseEntity.ok(service.reserve(id, ticketType, quantity, requestId));
+    }
+
+    // ✅ Reserve a whole cart (several events / tiers) in one call, all lines or none
+    @PostMapping("/reservations")
+    public ResponseEntity<List<TicketReservation>> reserveAll(@RequestBody List<ReservationLine> lines) {
+        return ResponseEntity.ok(service.reserveAll(lines));
+    }
+
+    // Changes whenever an event on the page, its availability or the next cursor changes
+    private static String catalogETag(CatalogPage page) {
+        StringBuilder state = new StringBuilder().append(page.getNextCursor()).append('\n');
+        for (EventSummary item : page.getItems()) {
+            state.append(item.getEventId()).append('|').append(item.getTitle()).append('|').append(item.getEventDate())
+                    .append('|').append(item.getStatus()).append('|').append(item.getTicketPrice())
+                    .append('|').append(item.getTicketsAvailable()).append('\n');
+        }
+        return digest(state);
+    }
+
+    // 128 bits of SHA-256: a 32-bit hash is too likely to let two different pages share an ETag
+    private static String digest(CharSequence state) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(state.toString().getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
 }
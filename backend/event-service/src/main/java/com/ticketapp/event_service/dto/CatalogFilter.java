@@ -0,0 +1,34 @@
+package com.ticketapp.event_service.dto;
+
+import java.time.LocalDateTime;
+
+// Optional server-side filters of the event catalog; null means "any"
+public class CatalogFilter {
+    private String location;
+    private String eventType;
+    private String status;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    public CatalogFilter() {
+    }
+
+    public CatalogFilter(String location, String eventType, String status, LocalDateTime from, LocalDateTime to) {
+        this.location = location;
+        this.eventType = eventType;
+        this.status = status;
+        this.from = from;
+        this.to = to;
+    }
+
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+    public String getEventType() { return eventType; }
+    public void setEventType(String eventType) { this.eventType = eventType; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public LocalDateTime getFrom() { return from; }
+    public void setFrom(LocalDateTime from) { this.from = from; }
+    public LocalDateTime getTo() { return to; }
+    public void setTo(LocalDateTime to) { this.to = to; }
+}
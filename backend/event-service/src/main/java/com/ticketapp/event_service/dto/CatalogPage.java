@@ -0,0 +1,22 @@
+package com.ticketapp.event_service.dto;
+
+import java.util.List;
+
+// One page of the catalog; pass nextCursor back to get the following page (null on the last one)
+public class CatalogPage {
+    private List<EventSummary> items;
+    private String nextCursor;
+
+    public CatalogPage() {
+    }
+
+    public CatalogPage(List<EventSummary> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<EventSummary> getItems() { return items; }
+    public void setItems(List<EventSummary> items) { this.items = items; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
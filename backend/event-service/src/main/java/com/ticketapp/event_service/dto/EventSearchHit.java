@@ -0,0 +1,40 @@
+package com.ticketapp.event_service.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// One ranked result of GET /events/search
+public class EventSearchHit {
+    private UUID eventId;
+    private String title;
+    private String location;
+    private LocalDateTime eventDate;
+    private String eventType;
+    private double score;
+
+    public EventSearchHit() {
+    }
+
+    public EventSearchHit(UUID eventId, String title, String location, LocalDateTime eventDate,
+                          String eventType, double score) {
+        this.eventId = eventId;
+        this.title = title;
+        this.location = location;
+        this.eventDate = eventDate;
+        this.eventType = eventType;
+        this.score = score;
+    }
+
+    public UUID getEventId() { return eventId; }
+    public void setEventId(UUID eventId) { this.eventId = eventId; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+    public LocalDateTime getEventDate() { return eventDate; }
+    public void setEventDate(LocalDateTime eventDate) { this.eventDate = eventDate; }
+    public String getEventType() { return eventType; }
+    public void setEventType(String eventType) { this.eventType = eventType; }
+    public double getScore() { return score; }
+    public void setScore(double score) { this.score = score; }
+}
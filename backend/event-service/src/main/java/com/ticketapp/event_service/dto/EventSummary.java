@@ -0,0 +1,66 @@
+package com.ticketapp.event_service.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Slim list view of an event for the catalog (no description or inventory internals)
+public class EventSummary {
+    private UUID eventId;
+    private String title;
+    private String location;
+    private LocalDateTime eventDate;
+    private String eventType;
+    private String status;
+    private Double ticketPrice;
+    private int totalTickets;
+    private int ticketsAvailable;
+
+    public EventSummary() {
+    }
+
+    public EventSummary(EventSummary other) {
+        this.eventId = other.eventId;
+        this.title = other.title;
+        this.location = other.location;
+        this.eventDate = other.eventDate;
+        this.eventType = other.eventType;
+        this.status = other.status;
+        this.ticketPrice = other.ticketPrice;
+        this.totalTickets = other.totalTickets;
+        this.ticketsAvailable = other.ticketsAvailable;
+    }
+
+    // Used by the JPQL constructor expression in EventCatalogRepositoryImpl
+    public EventSummary(UUID eventId, String title, String location, LocalDateTime eventDate,
+                        String eventType, String status, Double ticketPrice,
+                        Integer totalTickets, Integer ticketsSold) {
+        this.eventId = eventId;
+        this.title = title;
+        this.location = location;
+        this.eventDate = eventDate;
+        this.eventType = eventType;
+        this.status = status;
+        this.ticketPrice = ticketPrice;
+        this.totalTickets = totalTickets;
+        this.ticketsAvailable = Math.max(totalTickets - ticketsSold, 0);
+    }
+
+    public UUID getEventId() { return eventId; }
+    public void setEventId(UUID eventId) { this.eventId = eventId; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+    public LocalDateTime getEventDate() { return eventDate; }
+    public void setEventDate(LocalDateTime eventDate) { this.eventDate = eventDate; }
+    public String getEventType() { return eventType; }
+    public void setEventType(String eventType) { this.eventType = eventType; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public Double getTicketPrice() { return ticketPrice; }
+    public void setTicketPrice(Double ticketPrice) { this.ticketPrice = ticketPrice; }
+    public int getTotalTickets() { return totalTickets; }
+    public void setTotalTickets(int totalTickets) { this.totalTickets = totalTickets; }
+    public int getTicketsAvailable() { return ticketsAvailable; }
+    public void setTicketsAvailable(int ticketsAvailable) { this.ticketsAvailable = ticketsAvailable; }
+}
@@ -0,0 +1,28 @@
+package com.ticketapp.event_service.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+// One line of a cart reservation; seatSection or seatIds make it an assigned-seating hold
+public class ReservationLine {
+    private UUID eventId;
+    private String ticketType;
+    private int quantity;
+    private String seatSection;
+    private List<String> seatIds;
+
+    public UUID getEventId() { return eventId; }
+    public void setEventId(UUID eventId) { this.eventId = eventId; }
+    public String getTicketType() { return ticketType; }
+    public void setTicketType(String ticketType) { this.ticketType = ticketType; }
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+    public String getSeatSection() { return seatSection; }
+    public void setSeatSection(String seatSection) { this.seatSection = seatSection; }
+    public List<String> getSeatIds() { return seatIds; }
+    public void setSeatIds(List<String> seatIds) { this.seatIds = seatIds; }
+
+    public boolean isSeated() {
+        return seatSection != null || (seatIds != null && !seatIds.isEmpty());
+    }
+}
@@ -0,0 +1,14 @@
+package com.ticketapp.event_service.dto;
+
+public class SeatSectionRequest {
+    private String name;
+    private int rows;
+    private int seatsPerRow;
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public int getRows() { return rows; }
+    public void setRows(int rows) { this.rows = rows; }
+    public int getSeatsPerRow() { return seatsPerRow; }
+    public void setSeatsPerRow(int seatsPerRow) { this.seatsPerRow = seatsPerRow; }
+}
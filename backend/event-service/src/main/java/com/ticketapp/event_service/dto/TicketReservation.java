@@ -0,0 +1,38 @@
+package com.ticketapp.event_service.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+// Result of reserving (or releasing) tickets; unitPrice is what the booking should snapshot
+public class TicketReservation {
+    private UUID eventId;
+    private String ticketType;
+    private int quantity;
+    private double unitPrice;
+    private int remaining;
+    private List<String> seatIds;
+
+    public TicketReservation() {
+    }
+
+    public TicketReservation(UUID eventId, String ticketType, int quantity, double unitPrice, int remaining) {
+        this.eventId = eventId;
+        this.ticketType = ticketType;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+        this.remaining = remaining;
+    }
+
+    public UUID getEventId() { return eventId; }
+    public void setEventId(UUID eventId) { this.eventId = eventId; }
+    public String getTicketType() { return ticketType; }
+    public void setTicketType(String ticketType) { this.ticketType = ticketType; }
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+    public double getUnitPrice() { return unitPrice; }
+    public void setUnitPrice(double unitPrice) { this.unitPrice = unitPrice; }
+    public int getRemaining() { return remaining; }
+    public void setRemaining(int remaining) { this.remaining = remaining; }
+    public List<String> getSeatIds() { return seatIds; }
+    public void setSeatIds(List<String> seatIds) { this.seatIds = seatIds; }
+}
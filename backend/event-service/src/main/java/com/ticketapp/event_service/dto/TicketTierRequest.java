@@ -0,0 +1,14 @@
+package com.ticketapp.event_service.dto;
+
+public class TicketTierRequest {
+    private String name;
+    private Double price;
+    private Integer totalTickets;
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+    public Integer getTotalTickets() { return totalTickets; }
+    public void setTotalTickets(Integer totalTickets) { this.totalTickets = totalTickets; }
+}
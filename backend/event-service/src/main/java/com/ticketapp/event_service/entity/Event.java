@@ -1,5 +1,7 @@
 package com.ticketapp.event_service.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import org.hibernate.annotations.GenericGenerator;
 
@@ -7,7 +9,13 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "events")
+@Table(name = "events", indexes = {
+        // Keyset order of the catalog, and the same order within each browsing filter
+        @Index(name = "idx_events_date_id", columnList = "event_date, event_id"),
+        @Index(name = "idx_events_location_date_id", columnList = "location, event_date, event_id"),
+        @Index(name = "idx_events_type_date_id", columnList = "event_type, event_date, event_id"),
+        @Index(name = "idx_events_status_date_id", columnList = "status, event_date, event_id")
+})
 public class Event {
 
     @Id
@@ -41,9 +49,53 @@ public class Event {
     @Column(name = "tickets_sold", nullable = false)
     private Integer ticketsSold = 0;
 
+    // Optimistic lock for writers that go through the entity (inventory uses conditional UPDATEs)
+    @JsonIgnore
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
+    // Hot event mode: inventory served from memory and flushed in batches
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "hot_mode", nullable = false, columnDefinition = "boolean default false")
+    private boolean hotMode;
+
+    // Last hot-inventory journal segment applied to this row
+    @JsonIgnore
+    @Column(name = "hot_flush_seq", nullable = false, columnDefinition = "bigint default 0")
+    private long hotFlushSeq;
+
+    // Instance that holds the in-memory counter of a hot event (events.hot.instance-id)
+    @JsonIgnore
+    @Column(name = "hot_owner")
+    private String hotOwner;
+
+    // Last change of the row, used for Last-Modified on GET /events/{id}
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     public Event() {
     }
 
+    // Detached copy, so cached instances are never modified by callers
+    public Event(Event other) {
+        this.eventId = other.eventId;
+        this.title = other.title;
+        this.description = other.description;
+        this.location = other.location;
+        this.eventDate = other.eventDate;
+        this.eventType = other.eventType;
+        this.status = other.status;
+        this.totalTickets = other.totalTickets;
+        this.ticketPrice = other.ticketPrice;
+        this.ticketsSold = other.ticketsSold;
+        this.version = other.version;
+        this.hotMode = other.hotMode;
+        this.hotFlushSeq = other.hotFlushSeq;
+        this.hotOwner = other.hotOwner;
+        this.updatedAt = other.updatedAt;
+    }
+
     public Event(String title, String description, String location,
                  LocalDateTime eventDate, String eventType, String status,
                  Integer totalTickets, Double ticketPrice) {
@@ -58,6 +110,12 @@ public class Event {
         this.ticketsSold = 0;
     }
 
+    @PrePersist
+    @PreUpdate
+    public void touch() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
     // Getters and Setters
 
     public UUID getEventId() {
@@ -139,4 +197,44 @@ public class Event {
     public void setTicketsSold(Integer ticketsSold) {
         this.ticketsSold = ticketsSold;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public boolean isHotMode() {
+        return hotMode;
+    }
+
+    public void setHotMode(boolean hotMode) {
+        this.hotMode = hotMode;
+    }
+
+    public long getHotFlushSeq() {
+        return hotFlushSeq;
+    }
+
+    public void setHotFlushSeq(long hotFlushSeq) {
+        this.hotFlushSeq = hotFlushSeq;
+    }
+
+    public String getHotOwner() {
+        return hotOwner;
+    }
+
+    public void setHotOwner(String hotOwner) {
+        this.hotOwner = hotOwner;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
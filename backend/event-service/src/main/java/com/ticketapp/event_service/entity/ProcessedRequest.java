@@ -0,0 +1,49 @@
+package com.ticketapp.event_service.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An inventory update sent with a requestId (outbox releases from booking-service) that was
+ * already applied. The id is assigned by the caller, so a retry conflicts on the primary key.
+ * Written by {@link com.ticketapp.event_service.repository.ProcessedRequestRepository#insertIfAbsent}.
+ */
+@Entity
+@Table(name = "processed_requests", indexes = {
+        @Index(name = "idx_processed_requests_created", columnList = "created_at")
+})
+public class ProcessedRequest {
+
+    @Id
+    @Column(name = "request_id", length = 100)
+    private String requestId;
+
+    @Column(name = "event_id", nullable = false)
+    private UUID eventId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public ProcessedRequest() {
+    }
+
+    public ProcessedRequest(String requestId, UUID eventId) {
+        this.requestId = requestId;
+        this.eventId = eventId;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public UUID getEventId() {
+        return eventId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,73 @@
+package com.ticketapp.event_service.entity;
+
+import jakarta.persistence.*;
+
+import java.util.UUID;
+
+/**
+ * One section of an event's seat map. Seat occupancy is stored as a bitset
+ * (row-major, each row padded to whole 64-bit words) instead of one row per seat.
+ */
+@Entity
+@Table(name = "seat_sections", indexes = {
+        @Index(name = "idx_seat_sections_event", columnList = "event_id, sort_order")
+})
+public class SeatSection {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "section_id", updatable = false, nullable = false)
+    private UUID sectionId;
+
+    @Column(name = "event_id", nullable = false)
+    private UUID eventId;
+
+    @Column(nullable = false, length = 50)
+    private String name;
+
+    @Column(name = "sort_order", nullable = false)
+    private int sortOrder;
+
+    @Column(name = "row_count", nullable = false)
+    private int rowCount;
+
+    @Column(name = "seats_per_row", nullable = false)
+    private int seatsPerRow;
+
+    // Held or sold seats, 1 bit per seat
+    @Column(name = "taken_bits", nullable = false)
+    private byte[] takenBits;
+
+    // Bumped on every write of takenBits so concurrent instances never overwrite each other
+    @Column(name = "bits_version", nullable = false)
+    private long bitsVersion;
+
+    public SeatSection() {
+    }
+
+    public SeatSection(UUID eventId, String name, int sortOrder, int rowCount, int seatsPerRow, byte[] takenBits) {
+        this.eventId = eventId;
+        this.name = name;
+        this.sortOrder = sortOrder;
+        this.rowCount = rowCount;
+        this.seatsPerRow = seatsPerRow;
+        this.takenBits = takenBits;
+    }
+
+    public UUID getSectionId() { return sectionId; }
+    public void setSectionId(UUID sectionId) { this.sectionId = sectionId; }
+    public UUID getEventId() { return eventId; }
+    public void setEventId(UUID eventId) { this.eventId = eventId; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public int getSortOrder() { return sortOrder; }
+    public void setSortOrder(int sortOrder) { this.sortOrder = sortOrder; }
+    public int getRowCount() { return rowCount; }
+    public void setRowCount(int rowCount) { this.rowCount = rowCount; }
+    public int getSeatsPerRow() { return seatsPerRow; }
+    public void setSeatsPerRow(int seatsPerRow) { this.seatsPerRow = seatsPerRow; }
+    public byte[] getTakenBits() { return takenBits; }
+    public void setTakenBits(byte[] takenBits) { this.takenBits = takenBits; }
+    public long getBitsVersion() { return bitsVersion; }
+    public void setBitsVersion(long bitsVersion) { this.bitsVersion = bitsVersion; }
+}
@@ -0,0 +1,52 @@
+package com.ticketapp.event_service.entity;
+
+import jakarta.persistence.*;
+
+import java.util.UUID;
+
+/**
+ * A priced ticket category of an event (VIP, GA, early-bird...) with its own inventory.
+ * The event's totalTickets/ticketsSold remain the aggregate over all tiers.
+ */
+@Entity
+@Table(name = "ticket_tiers", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_ticket_tiers_event_name", columnNames = {"event_id", "name"})
+})
+public class TicketTier {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "tier_id", updatable = false, nullable = false)
+    private UUID tierId;
+
+    @Column(name = "event_id", nullable = false)
+    private UUID eventId;
+
+    @Column(nullable = false, length = 50)
+    private String name;
+
+    @Column(nullable = false)
+    private Double price;
+
+    @Column(name = "total_tickets", nullable = false)
+    private Integer totalTickets;
+
+    @Column(name = "tickets_sold", nullable = false)
+    private Integer ticketsSold = 0;
+
+    public TicketTier() {
+    }
+
+    public UUID getTierId() { return tierId; }
+    public void setTierId(UUID tierId) { this.tierId = tierId; }
+    public UUID getEventId() { return eventId; }
+    public void setEventId(UUID eventId) { this.eventId = eventId; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+    public Integer getTotalTickets() { return totalTickets; }
+    public void setTotalTickets(Integer totalTickets) { this.totalTickets = totalTickets; }
+    public Integer getTicketsSold() { return ticketsSold; }
+    public void setTicketsSold(Integer ticketsSold) { this.ticketsSold = ticketsSold; }
+}
@@ -0,0 +1,18 @@
+package com.ticketapp.event_service.repository;
+
+import com.ticketapp.event_service.dto.CatalogFilter;
+import com.ticketapp.event_service.dto.EventSummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// Custom fragment of EventRepository for the keyset-paginated catalog
+public interface EventCatalogRepository {
+
+    /**
+     * Returns up to {@code limit} events matching the filter, ordered by (eventDate, eventId) and
+     * starting strictly after the given key. Pass a null key for the first page.
+     */
+    List<EventSummary> findCatalogPage(CatalogFilter filter, LocalDateTime afterDate, UUID afterId, int limit);
+}
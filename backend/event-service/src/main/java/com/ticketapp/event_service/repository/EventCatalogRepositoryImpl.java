@@ -0,0 +1,60 @@
+package com.ticketapp.event_service.repository;
+
+import com.ticketapp.event_service.dto.CatalogFilter;
+import com.ticketapp.event_service.dto.EventSummary;
+import com.ticketapp.event_service.entity.Event;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Only the filters that are actually set end up in the WHERE clause, so the planner can use
+// the (..., event_date, event_id) indexes instead of a generic "param IS NULL OR ..." plan
+class EventCatalogRepositoryImpl implements EventCatalogRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<EventSummary> findCatalogPage(CatalogFilter filter, LocalDateTime afterDate, UUID afterId, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<EventSummary> q = cb.createQuery(EventSummary.class);
+        Root<Event> e = q.from(Event.class);
+
+        Path<LocalDateTime> date = e.get("eventDate");
+        Path<UUID> id = e.get("eventId");
+
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.isNotNull(date));
+        if (filter.getLocation() != null) where.add(cb.equal(e.get("location"), filter.getLocation()));
+        if (filter.getEventType() != null) where.add(cb.equal(e.get("eventType"), filter.getEventType()));
+        if (filter.getStatus() != null) where.add(cb.equal(e.get("status"), filter.getStatus()));
+        if (filter.getFrom() != null) where.add(cb.greaterThanOrEqualTo(date, filter.getFrom()));
+        if (filter.getTo() != null) where.add(cb.lessThan(date, filter.getTo()));
+
+        // Keyset: (eventDate, eventId) > (afterDate, afterId)
+        if (afterDate != null && afterId != null) {
+            where.add(cb.or(
+                    cb.greaterThan(date, afterDate),
+                    cb.and(cb.equal(date, afterDate), cb.greaterThan(id, afterId))));
+        }
+
+        q.select(cb.construct(EventSummary.class,
+                        id, e.get("title"), e.get("location"), date, e.get("eventType"), e.get("status"),
+                        e.get("ticketPrice"), e.get("totalTickets"), e.get("ticketsSold")))
+                .where(where.toArray(new Predicate[0]))
+                .orderBy(cb.asc(date), cb.asc(id));
+
+        return em.createQuery(q)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -1,7 +1,79 @@
 package com.ticketapp.event_service.repository;
 import com.ticketapp.event_service.entity.Event;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
-public interface EventRepository extends JpaRepository<Event, UUID> { }
\ No newline at end of file
+public interface EventRepository extends JpaRepository<Event, UUID>, EventCatalogRepository {
+
+    // ✅ Reserve tickets in a single conditional UPDATE (returns 0 when sold out or missing).
+    // Hot events are sold from memory only; a request that waited on the row lock while the
+    // event switched to hot mode gets 0 here and goes to the counter instead.
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Event e SET e.ticketsSold = e.ticketsSold + :quantity, e.version = e.version + 1, e.updatedAt = LOCAL DATETIME " +
+            "WHERE e.eventId = :id AND e.hotMode = false AND e.ticketsSold + :quantity <= e.totalTickets")
+    int reserveTickets(@Param("id") UUID id, @Param("quantity") int quantity);
+
+    // ✅ Release tickets, never letting ticketsSold drop below zero
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Event e SET e.ticketsSold = e.ticketsSold - :quantity, e.version = e.version + 1, e.updatedAt = LOCAL DATETIME " +
+            "WHERE e.eventId = :id AND e.hotMode = false AND e.ticketsSold - :quantity >= 0")
+    int releaseTickets(@Param("id") UUID id, @Param("quantity") int quantity);
+
+    // Row-locked read, used when switching an event into hot mode
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Event e WHERE e.eventId = :id")
+    Optional<Event> findByIdForUpdate(@Param("id") UUID id);
+
+    List<Event> findByHotModeTrueAndHotOwner(String hotOwner);
+
+    // Hot events from before owners were recorded are taken over by the first instance to start
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Event e SET e.hotOwner = :owner WHERE e.hotMode = true AND e.hotOwner IS NULL")
+    int claimUnownedHotEvents(@Param("owner") String owner);
+
+    @Query("SELECT e.hotFlushSeq FROM Event e WHERE e.eventId = :id")
+    Optional<Long> findHotFlushSeq(@Param("id") UUID id);
+
+    // Highest journal sequence written by any instance; new segments must start above it
+    @Query("SELECT COALESCE(MAX(e.hotFlushSeq), 0) FROM Event e")
+    long findMaxHotFlushSeq();
+
+    // Best sellers, used to warm the event cache at startup
+    List<Event> findByOrderByTicketsSoldDesc(Pageable pageable);
+
+    // Keyset walk over all events, used to rebuild the search index
+    List<Event> findAllByOrderByEventIdAsc(Pageable pageable);
+
+    List<Event> findByEventIdGreaterThanOrderByEventIdAsc(UUID eventId, Pageable pageable);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Event e SET e.hotMode = true, e.hotOwner = :owner WHERE e.eventId = :id")
+    int enterHotMode(@Param("id") UUID id, @Param("owner") String owner);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Event e SET e.hotMode = false, e.hotOwner = null WHERE e.eventId = :id")
+    int leaveHotMode(@Param("id") UUID id);
+
+    // ✅ Write-behind flush of a hot event; the journal sequence makes replays idempotent
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Event e SET e.ticketsSold = e.ticketsSold + :delta, e.hotFlushSeq = :seq, e.version = e.version + 1, e.updatedAt = LOCAL DATETIME " +
+            "WHERE e.eventId = :id AND e.hotFlushSeq < :seq " +
+            "AND e.ticketsSold + :delta >= 0 AND e.ticketsSold + :delta <= e.totalTickets")
+    int applyHotDelta(@Param("id") UUID id, @Param("delta") int delta, @Param("seq") long seq);
+}
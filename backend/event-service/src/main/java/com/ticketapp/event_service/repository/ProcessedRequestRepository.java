@@ -0,0 +1,27 @@
+package com.ticketapp.event_service.repository;
+
+import com.ticketapp.event_service.entity.ProcessedRequest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface ProcessedRequestRepository extends JpaRepository<ProcessedRequest, String> {
+
+    // 1 for a new request, 0 for a duplicate. Unlike a failed insert, a conflict does not abort
+    // the caller's transaction; a concurrent duplicate waits until the first one commits or rolls back.
+    @Modifying
+    @Query(value = "INSERT INTO processed_requests (request_id, event_id, created_at) VALUES (:requestId, :eventId, :createdAt) " +
+            "ON CONFLICT (request_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("requestId") String requestId, @Param("eventId") UUID eventId,
+                       @Param("createdAt") LocalDateTime createdAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ProcessedRequest r WHERE r.createdAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,28 @@
+package com.ticketapp.event_service.repository;
+
+import com.ticketapp.event_service.entity.SeatSection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface SeatSectionRepository extends JpaRepository<SeatSection, UUID> {
+
+    List<SeatSection> findByEventIdOrderBySortOrder(UUID eventId);
+
+    boolean existsByEventId(UUID eventId);
+
+    @Transactional
+    void deleteByEventId(UUID eventId);
+
+    // ✅ Compare-and-set write of a section bitset (returns 0 if another writer got there first)
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE SeatSection s SET s.takenBits = :bits, s.bitsVersion = :version + 1 " +
+            "WHERE s.sectionId = :id AND s.bitsVersion = :version")
+    int writeBits(@Param("id") UUID id, @Param("bits") byte[] bits, @Param("version") long version);
+}
@@ -0,0 +1,37 @@
+package com.ticketapp.event_service.repository;
+
+import com.ticketapp.event_service.entity.TicketTier;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface TicketTierRepository extends JpaRepository<TicketTier, UUID> {
+
+    List<TicketTier> findByEventIdOrderByPriceDesc(UUID eventId);
+
+    Optional<TicketTier> findByEventIdAndNameIgnoreCase(UUID eventId, String name);
+
+    boolean existsByEventId(UUID eventId);
+
+    @Transactional
+    void deleteByEventId(UUID eventId);
+
+    // ✅ Same conditional-UPDATE pattern as the event row, scoped to one tier
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE TicketTier t SET t.ticketsSold = t.ticketsSold + :quantity " +
+            "WHERE t.tierId = :id AND t.ticketsSold + :quantity <= t.totalTickets")
+    int reserveTickets(@Param("id") UUID id, @Param("quantity") int quantity);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE TicketTier t SET t.ticketsSold = t.ticketsSold - :quantity " +
+            "WHERE t.tierId = :id AND t.ticketsSold - :quantity >= 0")
+    int releaseTickets(@Param("id") UUID id, @Param("quantity") int quantity);
+}
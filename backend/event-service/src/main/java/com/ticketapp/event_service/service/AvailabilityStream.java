@@ -0,0 +1,199 @@
+package com.ticketapp.event_service.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes "tickets left" to subscribed clients over server-sent events.
+ *
+ * Ticket changes only record the latest remaining count per event; a tick every
+ * {@code events.stream.tick-ms} sends one message per changed event, so a hot event selling
+ * hundreds of tickets a second still costs each subscriber a few messages. Emitters are
+ * servlet async requests, so idle subscribers hold a socket but no thread.
+ *
+ * The tick and the heartbeat only queue messages. Each subscriber has a bounded queue that a
+ * virtual thread drains while it has messages, so one slow socket never holds up the others;
+ * a subscriber whose queue is full is too slow to keep up and is disconnected (clients
+ * reconnect and get the current counts).
+ */
+@Service
+public class AvailabilityStream {
+
+    private static final String EVENT_NAME = "availability";
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final ArrayBlockingQueue<SseEmitter.SseEventBuilder> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    private final ConcurrentHashMap<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    // Latest remaining count of events changed since the last tick
+    private final ConcurrentHashMap<UUID, Integer> changed = new ConcurrentHashMap<>();
+    // Last count sent per event, to report the delta
+    private final ConcurrentHashMap<UUID, Integer> lastSent = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${events.stream.tick-ms:250}")
+    private long tickMs;
+
+    @Value("${events.stream.heartbeat-seconds:20}")
+    private long heartbeatSeconds;
+
+    @Value("${events.stream.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    @Value("${events.stream.max-events-per-subscription:100}")
+    private int maxEventsPerSubscription;
+
+    @Value("${events.stream.max-queued-per-subscriber:64}")
+    private int maxQueued;
+
+    @PostConstruct
+    public void start() {
+        timer.scheduleWithFixedDelay(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        timer.scheduleWithFixedDelay(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        senders.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(sub -> sub.emitter.complete()));
+    }
+
+    // ✅ Subscribe to a set of events; the current counts are sent right away
+    public SseEmitter subscribe(Map<UUID, Integer> initial) {
+        if (initial.size() > maxEventsPerSubscription) {
+            throw new IllegalArgumentException("At most " + maxEventsPerSubscription + " events per stream");
+        }
+
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+        Subscriber sub = new Subscriber(emitter, maxQueued);
+        Collection<UUID> ids = initial.keySet();
+        Runnable unsubscribe = () -> {
+            sub.closed = true;
+            sub.queue.clear();
+            ids.forEach(id -> subscribers.computeIfPresent(id, (k, set) -> {
+                set.remove(sub);
+                return set.isEmpty() ? null : set;
+            }));
+        };
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(ex -> unsubscribe.run());
+
+        // Sent on the request thread, before any queued message can be
+        for (Map.Entry<UUID, Integer> e : initial.entrySet()) {
+            if (!send(emitter, message(e.getKey(), e.getValue(), 0))) return emitter;
+            lastSent.putIfAbsent(e.getKey(), e.getValue());
+        }
+        // Add inside compute so it cannot race with the last subscriber removing the set
+        ids.forEach(id -> subscribers.compute(id, (k, set) -> {
+            if (set == null) set = ConcurrentHashMap.newKeySet();
+            set.add(sub);
+            return set;
+        }));
+        return emitter;
+    }
+
+    // Called on every accepted ticket change; cheap, the actual push happens on the next tick
+    public void publish(UUID eventId, int remaining) {
+        if (subscribers.containsKey(eventId)) {
+            changed.put(eventId, remaining);
+        }
+    }
+
+    private void tick() {
+        for (UUID id : changed.keySet()) {
+            Integer remaining = changed.remove(id);
+            Set<Subscriber> set = subscribers.get(id);
+            if (remaining == null || set == null) continue;
+
+            Integer previous = lastSent.put(id, remaining);
+            int delta = previous == null ? 0 : remaining - previous;
+            for (Subscriber sub : set) {
+                enqueue(sub, message(id, remaining, delta));
+            }
+        }
+        lastSent.keySet().retainAll(subscribers.keySet());
+    }
+
+    // Comment lines keep proxies from closing idle streams and reveal dead clients
+    private void heartbeat() {
+        Set<Subscriber> all = new HashSet<>();
+        subscribers.values().forEach(all::addAll);
+        for (Subscriber sub : all) {
+            enqueue(sub, SseEmitter.event().comment("ping"));
+        }
+    }
+
+    private void enqueue(Subscriber sub, SseEmitter.SseEventBuilder message) {
+        if (sub.closed) return;
+        if (!sub.queue.offer(message)) {
+            // Not reading fast enough: drop the client rather than buffer without bound
+            sub.closed = true;
+            sub.queue.clear();
+            sub.emitter.completeWithError(new IOException("Availability stream subscriber too slow"));
+            return;
+        }
+        if (sub.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(sub));
+        }
+    }
+
+    // One drainer per subscriber at a time, so its messages keep their order
+    private void drain(Subscriber sub) {
+        do {
+            SseEmitter.SseEventBuilder message;
+            while (!sub.closed && (message = sub.queue.poll()) != null) {
+                if (!send(sub.emitter, message)) {
+                    sub.closed = true;
+                    sub.queue.clear();
+                }
+            }
+            sub.draining.set(false);
+            // A message queued after the last poll but before the flag was cleared
+        } while (!sub.closed && !sub.queue.isEmpty() && sub.draining.compareAndSet(false, true));
+    }
+
+    private static SseEmitter.SseEventBuilder message(UUID eventId, int remaining, int delta) {
+        return SseEmitter.event()
+                .name(EVENT_NAME)
+                .data(Map.of("eventId", eventId, "remaining", remaining, "delta", delta));
+    }
+
+    private static boolean send(SseEmitter emitter, SseEmitter.SseEventBuilder message) {
+        try {
+            emitter.send(message);
+            return true;
+        } catch (IOException | IllegalStateException ex) {
+            emitter.completeWithError(ex);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.ticketapp.event_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ticketapp.event_service.dto.CatalogFilter;
+import com.ticketapp.event_service.dto.CatalogPage;
+import com.ticketapp.event_service.entity.Event;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process cache of event details, catalog pages and the full event list.
+ *
+ * Writers evict exactly what they change: the event's details and the one catalog page per
+ * filter whose key range contains the event (keyset pages never shift). Entries also expire
+ * after a short TTL, which bounds staleness for changes made by other instances. IDs that do
+ * not exist are remembered for a shorter time so repeated lookups don't hit the database.
+ */
+@Service
+public class EventCache {
+
+    public record PageKey(String location, String eventType, String status,
+                          LocalDateTime from, LocalDateTime to, String cursor, int limit) {
+
+        static PageKey of(CatalogFilter f, String cursor, int limit) {
+            return new PageKey(f.getLocation(), f.getEventType(), f.getStatus(), f.getFrom(), f.getTo(), cursor, limit);
+        }
+    }
+
+    // A cached page covers the keys (startDate, startId) exclusive to (endDate, endId) inclusive;
+    // a null start is the first page and a null end is the last page
+    public record CachedPage(LocalDateTime startDate, UUID startId,
+                             LocalDateTime endDate, UUID endId, CatalogPage page) {
+
+        boolean covers(LocalDateTime date, UUID id) {
+            return (startDate == null || compare(date, id, startDate, startId) > 0)
+                    && (endDate == null || compare(date, id, endDate, endId) <= 0);
+        }
+
+        // Same order as the keyset query: PostgreSQL compares uuids as unsigned bytes, while
+        // UUID.compareTo compares the two halves as signed longs
+        private static int compare(LocalDateTime d1, UUID id1, LocalDateTime d2, UUID id2) {
+            int c = d1.compareTo(d2);
+            if (c != 0) return c;
+            c = Long.compareUnsigned(id1.getMostSignificantBits(), id2.getMostSignificantBits());
+            return c != 0 ? c : Long.compareUnsigned(id1.getLeastSignificantBits(), id2.getLeastSignificantBits());
+        }
+    }
+
+    private final Cache<UUID, Event> details;
+    private final Cache<UUID, Boolean> missing;
+    private final Cache<PageKey, CachedPage> pages;
+    private final Cache<String, List<Event>> allEvents;
+
+    public EventCache(@Value("${events.cache.details.max-size:10000}") long detailsSize,
+                      @Value("${events.cache.pages.max-size:1000}") long pagesSize,
+                      @Value("${events.cache.ttl-seconds:30}") long ttlSeconds,
+                      @Value("${events.cache.missing-ttl-seconds:10}") long missingTtlSeconds) {
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        this.details = Caffeine.newBuilder().maximumSize(detailsSize).expireAfterWrite(ttl).build();
+        this.missing = Caffeine.newBuilder().maximumSize(detailsSize)
+                .expireAfterWrite(Duration.ofSeconds(missingTtlSeconds)).build();
+        this.pages = Caffeine.newBuilder().maximumSize(pagesSize).expireAfterWrite(ttl).build();
+        this.allEvents = Caffeine.newBuilder().maximumSize(1).expireAfterWrite(ttl).build();
+    }
+
+    /** Returns the cached event, loading it on a miss; null when the ID is known not to exist. */
+    public Event getEvent(UUID id, Function<UUID, Event> loader) {
+        if (missing.getIfPresent(id) != null) return null;
+        Event event = details.get(id, loader);
+        if (event == null) missing.put(id, Boolean.TRUE);
+        return event;
+    }
+
+    public void putEvent(Event event) {
+        details.put(event.getEventId(), event);
+    }
+
+    public CachedPage getPage(PageKey key, Function<PageKey, CachedPage> loader) {
+        return pages.get(key, loader);
+    }
+
+    public List<Event> getAllEvents(Supplier<List<Event>> loader) {
+        return allEvents.get("all", k -> List.copyOf(loader.get()));
+    }
+
+    // ✅ Something about this event changed (tickets, creation, deletion)
+    public void evict(UUID id, LocalDateTime eventDate) {
+        details.invalidate(id);
+        missing.invalidate(id);
+        allEvents.invalidateAll();
+        if (eventDate == null) return; // undated events are not in the catalog
+        pages.asMap().values().removeIf(p -> p.covers(eventDate, id));
+    }
+}
@@ -0,0 +1,510 @@
+package com.ticketapp.event_service.service;
+
+import com.ticketapp.event_service.dto.EventSearchHit;
+import com.ticketapp.event_service.entity.Event;
+import com.ticketapp.event_service.repository.EventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over event title, description, location and type.
+ *
+ * Every event gets a dense int doc id; each term maps to a posting list of doc ids (ascending)
+ * with a field-weighted term frequency. A query intersects the posting lists of its terms,
+ * smallest first, and scores the survivors with weight * idf, so the work depends on the
+ * rarest term rather than on the number of events. The last query term also matches as a
+ * prefix (autocomplete) via the sorted term dictionary. Reads share a read lock; add/delete
+ * take the write lock for the few posting lists of one event. Deleted doc ids leave a hole
+ * that is compacted away once holes make up a quarter of the ids.
+ *
+ * The index lives in each instance and only sees the changes made through that instance, so it
+ * is rebuilt from the events table at startup and then every events.search.rebuild-interval-ms
+ * to pick up events created, changed or deleted elsewhere. A rebuild is built on the side and
+ * swapped in; searches keep using the old index meanwhile.
+ */
+@Service
+public class EventSearchIndex {
+
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float TYPE_WEIGHT = 2f;
+    private static final float LOCATION_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    // Prefix matches rank slightly below exact ones
+    private static final float PREFIX_FACTOR = 0.8f;
+    private static final int MAX_PREFIX_SCAN = 1024;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int MAX_RESULTS = 50;
+    // Holes left by deleted docs are compacted once there are this many, and a quarter of all ids
+    private static final int MIN_HOLES_TO_COMPACT = 1024;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "at", "by", "for", "in", "of", "on", "or", "the", "to", "with");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private record Doc(UUID eventId, String title, String location, LocalDateTime eventDate,
+                       String eventType, String[] terms) { }
+
+    // Posting list of one term; doc ids are assigned in increasing order, so appends keep it sorted
+    private static final class Postings {
+        int[] docs = new int[4];
+        float[] weights = new float[4];
+        int size;
+
+        void add(int doc, float weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+
+        void remap(int[] newIds) {
+            for (int i = 0; i < size; i++) docs[i] = newIds[docs[i]];
+        }
+
+        void remove(int doc) {
+            int i = Arrays.binarySearch(docs, 0, size, doc);
+            if (i < 0) return;
+            System.arraycopy(docs, i + 1, docs, i, size - i - 1);
+            System.arraycopy(weights, i + 1, weights, i, size - i - 1);
+            size--;
+        }
+    }
+
+    // Matching docs (ascending) with their score; score = weights[i] * factor
+    private record Matches(int[] docs, float[] weights, int size, float factor) { }
+
+    private final EventRepository repo;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // Swapped as a whole by a rebuild; guarded by lock
+    private TreeMap<String, Postings> terms = new TreeMap<>();
+    private List<Doc> docs = new ArrayList<>();
+    private Map<UUID, Integer> docByEvent = new HashMap<>();
+    // Changes made while a rebuild runs, replayed onto the new index (null = removed)
+    private Map<UUID, Event> changedDuringRebuild;
+
+    @Value("${events.search.rebuild-page-size:1000}")
+    private int rebuildPageSize;
+
+    public EventSearchIndex(EventRepository repo) {
+        this.repo = repo;
+    }
+
+    // ✅ Rebuild from the events table, one keyset page at a time
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!rebuildLock.tryLock()) return; // one rebuild at a time is enough
+        try {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = new LinkedHashMap<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            TreeMap<String, Postings> newTerms = new TreeMap<>();
+            List<Doc> newDocs = new ArrayList<>();
+            Map<UUID, Integer> newDocByEvent = new HashMap<>();
+            PageRequest page = PageRequest.of(0, rebuildPageSize);
+            List<Event> batch = repo.findAllByOrderByEventIdAsc(page);
+            while (!batch.isEmpty()) {
+                for (Event e : batch) addDoc(newTerms, newDocs, newDocByEvent, e, weights(e));
+                if (batch.size() < rebuildPageSize) break;
+                batch = repo.findByEventIdGreaterThanOrderByEventIdAsc(batch.get(batch.size() - 1).getEventId(), page);
+            }
+
+            lock.writeLock().lock();
+            try {
+                terms = newTerms;
+                docs = newDocs;
+                docByEvent = newDocByEvent;
+                changedDuringRebuild.forEach((id, e) -> {
+                    removeLocked(id);
+                    if (e != null) addDoc(terms, docs, docByEvent, e, weights(e));
+                });
+            } finally {
+                changedDuringRebuild = null;
+                lock.writeLock().unlock();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // Picks up events changed through other instances
+    @Scheduled(initialDelayString = "${events.search.rebuild-interval-ms:600000}",
+            fixedDelayString = "${events.search.rebuild-interval-ms:600000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    // ✅ Add or re-index one event
+    public void index(Event e) {
+        Map<String, Float> weights = weights(e);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(e.getEventId());
+            addDoc(terms, docs, docByEvent, e, weights);
+            if (changedDuringRebuild != null) changedDuringRebuild.put(e.getEventId(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID eventId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(eventId);
+            if (changedDuringRebuild != null) changedDuringRebuild.put(eventId, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked search; every term must match (the last one may be a prefix unless the query ends
+     * with a space).
+     */
+    public List<EventSearchHit> search(String query, int limit) {
+        if (query == null || query.isBlank()) return List.of();
+        boolean prefixLast = !Character.isWhitespace(query.charAt(query.length() - 1));
+        List<String> tokens = queryTokens(query, prefixLast);
+        if (tokens.isEmpty()) return List.of();
+        TopK top = new TopK(Math.min(Math.max(limit, 1), MAX_RESULTS));
+
+        lock.readLock().lock();
+        try {
+            int n = docByEvent.size();
+            List<Matches> exact = new ArrayList<>(tokens.size());
+            List<Matches> completions = null;
+            for (int i = 0; i < tokens.size(); i++) {
+                if (prefixLast && i == tokens.size() - 1) {
+                    completions = prefixMatches(tokens.get(i), n);
+                    if (completions.isEmpty()) return List.of();
+                } else {
+                    Matches m = exactMatches(tokens.get(i), n);
+                    if (m == null) return List.of();
+                    exact.add(m);
+                }
+            }
+
+            // Only a word being typed: rank each doc by its best completion
+            if (exact.isEmpty()) {
+                for (Matches m : completions) top.offerAll(m);
+                return hits(top);
+            }
+
+            exact.sort(Comparator.comparingInt(Matches::size));
+            Matches acc = exact.get(0);
+            for (int i = 1; i < exact.size() && acc.size() > 0; i++) {
+                acc = intersect(acc, exact.get(i));
+            }
+            if (completions != null && acc.size() > 0) {
+                acc = intersectAny(acc, completions);
+            }
+            top.offerAll(acc);
+            return hits(top);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ✅ Autocomplete: the most common indexed terms starting with the prefix
+    public List<String> suggest(String prefix, int limit) {
+        List<String> tokens = tokenize(prefix, true);
+        if (tokens.isEmpty()) return List.of();
+        String last = tokens.get(tokens.size() - 1);
+        int k = Math.min(Math.max(limit, 1), MAX_RESULTS);
+
+        lock.readLock().lock();
+        try {
+            return expansions(last).stream()
+                    .sorted((a, b) -> Integer.compare(b.getValue().size, a.getValue().size))
+                    .limit(k)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Map<String, Float> weights(Event e) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, e.getTitle(), TITLE_WEIGHT);
+        addField(weights, e.getEventType(), TYPE_WEIGHT);
+        addField(weights, e.getLocation(), LOCATION_WEIGHT);
+        addField(weights, e.getDescription(), DESCRIPTION_WEIGHT);
+        return weights;
+    }
+
+    private static void addDoc(TreeMap<String, Postings> terms, List<Doc> docs, Map<UUID, Integer> docByEvent,
+                               Event e, Map<String, Float> weights) {
+        int doc = docs.size();
+        docs.add(new Doc(e.getEventId(), e.getTitle(), e.getLocation(), e.getEventDate(),
+                e.getEventType(), weights.keySet().toArray(new String[0])));
+        docByEvent.put(e.getEventId(), doc);
+        weights.forEach((term, w) -> terms.computeIfAbsent(term, k -> new Postings()).add(doc, w));
+    }
+
+    private void removeLocked(UUID eventId) {
+        Integer doc = docByEvent.remove(eventId);
+        if (doc == null) return;
+        for (String term : docs.get(doc).terms()) {
+            Postings p = terms.get(term);
+            if (p == null) continue;
+            p.remove(doc);
+            if (p.size == 0) terms.remove(term);
+        }
+        docs.set(doc, null);
+
+        int holes = docs.size() - docByEvent.size();
+        if (holes >= MIN_HOLES_TO_COMPACT && holes * 4 >= docs.size()) compactLocked();
+    }
+
+    // Renumbers the live docs densely; the mapping keeps their order, so postings stay sorted
+    private void compactLocked() {
+        int[] newIds = new int[docs.size()];
+        List<Doc> live = new ArrayList<>(docByEvent.size());
+        for (int i = 0; i < docs.size(); i++) {
+            Doc d = docs.get(i);
+            if (d == null) continue;
+            newIds[i] = live.size();
+            docByEvent.put(d.eventId(), live.size());
+            live.add(d);
+        }
+        for (Postings p : terms.values()) p.remap(newIds);
+        docs = live;
+    }
+
+    private Matches exactMatches(String term, int n) {
+        Postings p = terms.get(term);
+        if (p == null) return null;
+        return new Matches(p.docs, p.weights, p.size, idf(n, p.size));
+    }
+
+    // Posting lists of the most common terms starting with the prefix
+    private List<Matches> prefixMatches(String prefix, int n) {
+        List<Map.Entry<String, Postings>> expanded = expansions(prefix);
+        if (expanded.size() > MAX_PREFIX_EXPANSIONS) {
+            expanded.sort((a, b) -> Integer.compare(b.getValue().size, a.getValue().size));
+            expanded = expanded.subList(0, MAX_PREFIX_EXPANSIONS);
+        }
+
+        List<Matches> out = new ArrayList<>(expanded.size());
+        for (Map.Entry<String, Postings> e : expanded) {
+            Postings p = e.getValue();
+            float f = idf(n, p.size) * (e.getKey().equals(prefix) ? 1f : PREFIX_FACTOR);
+            out.add(new Matches(p.docs, p.weights, p.size, f));
+        }
+        return out;
+    }
+
+    private List<Map.Entry<String, Postings>> expansions(String prefix) {
+        List<Map.Entry<String, Postings>> out = new ArrayList<>();
+        for (Map.Entry<String, Postings> e : terms.tailMap(prefix, true).entrySet()) {
+            if (!e.getKey().startsWith(prefix) || out.size() == MAX_PREFIX_SCAN) break;
+            out.add(e);
+        }
+        return out;
+    }
+
+    // Walks the smaller list and gallops through the larger one
+    private static Matches intersect(Matches a, Matches b) {
+        int[] aDocs = a.docs(), bDocs = b.docs();
+        float[] aWeights = a.weights(), bWeights = b.weights();
+        int aSize = a.size(), bSize = b.size();
+        float aFactor = a.factor(), bFactor = b.factor();
+
+        int[] outDocs = new int[aSize];
+        float[] outWeights = new float[aSize];
+        int size = 0;
+
+        int j = 0;
+        for (int i = 0; i < aSize && j < bSize; i++) {
+            j = advance(bDocs, j, bSize, aDocs[i]);
+            if (j < bSize && bDocs[j] == aDocs[i]) {
+                outDocs[size] = aDocs[i];
+                outWeights[size] = aWeights[i] * aFactor + bWeights[j] * bFactor;
+                size++;
+                j++;
+            }
+        }
+        return new Matches(outDocs, outWeights, size, 1f);
+    }
+
+    // Keeps the docs of acc that match at least one completion, adding the completion scores
+    private static Matches intersectAny(Matches acc, List<Matches> completions) {
+        int[] accDocs = acc.docs();
+        int accSize = acc.size();
+        float[] extra = new float[accSize];
+        boolean[] hit = new boolean[accSize];
+
+        for (Matches c : completions) {
+            int[] cDocs = c.docs();
+            int j = 0;
+            for (int i = 0; i < accSize && j < c.size(); i++) {
+                j = advance(cDocs, j, c.size(), accDocs[i]);
+                if (j < c.size() && cDocs[j] == accDocs[i]) {
+                    extra[i] += c.weights()[j] * c.factor();
+                    hit[i] = true;
+                    j++;
+                }
+            }
+        }
+
+        int[] outDocs = new int[accSize];
+        float[] outWeights = new float[accSize];
+        int size = 0;
+        for (int i = 0; i < accSize; i++) {
+            if (!hit[i]) continue;
+            outDocs[size] = accDocs[i];
+            outWeights[size] = acc.weights()[i] * acc.factor() + extra[i];
+            size++;
+        }
+        return new Matches(outDocs, outWeights, size, 1f);
+    }
+
+    // First index >= from whose doc is >= target: exponential probe, then binary search
+    private static int advance(int[] docs, int from, int size, int target) {
+        if (from >= size || docs[from] >= target) return from;
+        if (from + 1 >= size || docs[from + 1] >= target) return from + 1; // dense lists: next doc
+        int step = 1;
+        int lo = from;
+        int hi = from + 1;
+        while (hi < size && docs[hi] < target) {
+            lo = hi;
+            step <<= 1;
+            hi = from + step;
+        }
+        int found = Arrays.binarySearch(docs, lo + 1, Math.min(hi + 1, size), target);
+        return found >= 0 ? found : -found - 1;
+    }
+
+    // Best k (doc, score) pairs; a doc offered twice keeps its higher score
+    private static final class TopK {
+        final int[] docs;
+        final float[] scores;
+        int size;
+        int minSlot;
+
+        TopK(int k) {
+            docs = new int[k];
+            scores = new float[k];
+        }
+
+        void offerAll(Matches m) {
+            int[] mDocs = m.docs();
+            float[] mWeights = m.weights();
+            float factor = m.factor();
+            for (int i = 0; i < m.size(); i++) {
+                float score = mWeights[i] * factor;
+                if (size == docs.length && score <= scores[minSlot]) continue;
+                offer(mDocs[i], score);
+            }
+        }
+
+        private void offer(int doc, float score) {
+            for (int i = 0; i < size; i++) {
+                if (docs[i] == doc) {
+                    if (score > scores[i]) scores[i] = score;
+                    findMin();
+                    return;
+                }
+            }
+            int slot = size < docs.length ? size++ : minSlot;
+            docs[slot] = doc;
+            scores[slot] = score;
+            findMin();
+        }
+
+        private void findMin() {
+            minSlot = 0;
+            for (int i = 1; i < size; i++) {
+                if (scores[i] < scores[minSlot]) minSlot = i;
+            }
+        }
+    }
+
+    private List<EventSearchHit> hits(TopK top) {
+        Integer[] order = new Integer[top.size];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (x, y) -> Float.compare(top.scores[y], top.scores[x]));
+
+        List<EventSearchHit> hits = new ArrayList<>(order.length);
+        for (int slot : order) {
+            Doc d = docs.get(top.docs[slot]);
+            hits.add(new EventSearchHit(d.eventId(), d.title(), d.location(), d.eventDate(), d.eventType(),
+                    top.scores[slot]));
+        }
+        return hits;
+    }
+
+    private static float idf(int docCount, int docFreq) {
+        return (float) Math.log(1 + (double) docCount / docFreq);
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float fieldWeight) {
+        Map<String, Integer> tf = new HashMap<>();
+        for (String t : tokenize(text, false)) tf.merge(t, 1, Integer::sum);
+        tf.forEach((t, count) -> weights.merge(t, fieldWeight * (1 + (float) Math.log(count)), Float::sum));
+    }
+
+    // Stop words are dropped, except a last word that is still being typed (e.g. "in" -> "india")
+    private static List<String> queryTokens(String query, boolean prefixLast) {
+        List<String> tokens = tokenize(query, true);
+        List<String> out = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            boolean typing = prefixLast && i == tokens.size() - 1;
+            if (typing || !STOP_WORDS.contains(tokens.get(i))) out.add(tokens.get(i));
+        }
+        return out;
+    }
+
+    // Lower-cased, accent-free runs of letters and digits
+    static List<String> tokenize(String text, boolean keepStopWords) {
+        if (text == null || text.isBlank()) return List.of();
+        String norm = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+
+        List<String> out = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= norm.length(); i++) {
+            boolean letter = i < norm.length() && Character.isLetterOrDigit(norm.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                String t = norm.substring(start, i);
+                if (keepStopWords || !STOP_WORDS.contains(t)) out.add(t);
+                start = -1;
+            }
+        }
+        return out;
+    }
+}
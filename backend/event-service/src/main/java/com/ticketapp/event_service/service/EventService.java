@@ -1,28 +1,172 @@
 package com.ticketapp.event_service.service;
 
 import com.ticketapp.event_service.client.UserClient;
+import com.ticketapp.event_service.dto.CatalogFilter;
+import com.ticketapp.event_service.dto.CatalogPage;
+import com.ticketapp.event_service.dto.EventSearchHit;
+import com.ticketapp.event_service.dto.EventSummary;
+import com.ticketapp.event_service.dto.ReservationLine;
+import com.ticketapp.event_service.dto.SeatSectionRequest;
+import com.ticketapp.event_service.dto.TicketReservation;
+import com.ticketapp.event_service.dto.TicketTierRequest;
 import com.ticketapp.event_service.entity.Event;
+import com.ticketapp.event_service.entity.TicketTier;
 import com.ticketapp.event_service.repository.EventRepository;
+import com.ticketapp.event_service.repository.TicketTierRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class EventService {
 
+    private static final int MAX_CATALOG_PAGE = 100;
+    private static final int MAX_CART_LINES = 20;
+
+    private static final Logger log = LoggerFactory.getLogger(EventService.class);
+
     private final EventRepository repo;
     private final UserClient userClient;
+    private final HotEventInventory hotInventory;
+    private final InventoryBatcher batcher;
+    private final SeatMapService seatMaps;
+    private final TicketTierRepository tierRepo;
+    private final EventCache cache;
+    private final EventSearchIndex searchIndex;
+    private final AvailabilityStream availabilityStream;
+    private final ProcessedRequests processedRequests;
 
-    public EventService(EventRepository repo, UserClient userClient) {
+    @Value("${events.cache.warm-top:50}")
+    private int warmTop;
+
+    public EventService(EventRepository repo, UserClient userClient,
+                        HotEventInventory hotInventory, InventoryBatcher batcher,
+                        SeatMapService seatMaps, TicketTierRepository tierRepo,
+                        EventCache cache, EventSearchIndex searchIndex,
+                        AvailabilityStream availabilityStream, ProcessedRequests processedRequests) {
         this.repo = repo;
+        this.processedRequests = processedRequests;
+        this.availabilityStream = availabilityStream;
+        this.searchIndex = searchIndex;
+        this.cache = cache;
+        this.tierRepo = tierRepo;
         this.userClient = userClient;
+        this.hotInventory = hotInventory;
+        this.batcher = batcher;
+        this.seatMaps = seatMaps;
     }
 
     // Get all events
     public List<Event> getAllEvents() {
-        return repo.findAll();
+        List<Event> events = cache.getAllEvents(() -> repo.findAll());
+
+        // Hot events change without touching the database (or the cache); overlay on copies
+        List<Event> out = null;
+        for (int i = 0; i < events.size(); i++) {
+            Integer hotSold = hotInventory.ticketsSold(events.get(i).getEventId());
+            if (hotSold == null) continue;
+            if (out == null) out = new ArrayList<>(events);
+            Event copy = new Event(events.get(i));
+            copy.setTicketsSold(hotSold);
+            out.set(i, copy);
+        }
+        return out == null ? events : out;
+    }
+
+    // ✅ Warm the detail cache with the best-selling events
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmCache() {
+        if (warmTop <= 0) return;
+        repo.findByOrderByTicketsSoldDesc(PageRequest.of(0, warmTop)).forEach(cache::putEvent);
+    }
+
+    // ✅ Catalog page: keyset pagination over (eventDate, eventId) with a slim projection
+    public CatalogPage getCatalog(String cursor, int limit, CatalogFilter filter) {
+        int size = Math.min(Math.max(limit, 1), MAX_CATALOG_PAGE);
+        CatalogPage page = cache.getPage(EventCache.PageKey.of(filter, cursor, size),
+                key -> loadCatalogPage(cursor, size, filter)).page();
+
+        // Hot events change without touching the database (or the cache); overlay on copies
+        List<EventSummary> items = null;
+        for (int i = 0; i < page.getItems().size(); i++) {
+            EventSummary item = page.getItems().get(i);
+            Integer hotSold = hotInventory.ticketsSold(item.getEventId());
+            if (hotSold == null) continue;
+            if (items == null) items = new ArrayList<>(page.getItems());
+            EventSummary copy = new EventSummary(item);
+            copy.setTicketsAvailable(Math.max(item.getTotalTickets() - hotSold, 0));
+            items.set(i, copy);
+        }
+        return items == null ? page : new CatalogPage(items, page.getNextCursor());
+    }
+
+    // ✅ Upcoming events only: the range starts now, so past events drop out on their own.
+    // "now" is rounded to the minute so pages can still be shared through the cache.
+    public CatalogPage getUpcoming(String cursor, int limit, CatalogFilter filter) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        if (filter.getFrom() == null || filter.getFrom().isBefore(now)) {
+            filter.setFrom(now);
+        }
+        return getCatalog(cursor, limit, filter);
+    }
+
+    private EventCache.CachedPage loadCatalogPage(String cursor, int size, CatalogFilter filter) {
+        LocalDateTime afterDate = null;
+        UUID afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sep = key.indexOf('|');
+                afterDate = LocalDateTime.parse(key.substring(0, sep));
+                afterId = UUID.fromString(key.substring(sep + 1));
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Invalid catalog cursor");
+            }
+        }
+
+        // One extra row tells us whether there is a next page
+        List<EventSummary> rows = repo.findCatalogPage(filter, afterDate, afterId, size + 1);
+        boolean more = rows.size() > size;
+        List<EventSummary> items = more ? new ArrayList<>(rows.subList(0, size)) : rows;
+
+        String nextCursor = null;
+        LocalDateTime endDate = null;
+        UUID endId = null;
+        if (more) {
+            EventSummary last = items.get(items.size() - 1);
+            endDate = last.getEventDate();
+            endId = last.getEventId();
+            String key = endDate + "|" + endId;
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+        }
+        return new EventCache.CachedPage(afterDate, afterId, endDate, endId, new CatalogPage(items, nextCursor));
+    }
+
+    // ✅ Full-text search over title, description, location and type
+    public List<EventSearchHit> search(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        return searchIndex.suggest(prefix, limit);
     }
 
     // ✅ Add event (only allowed for HOST users)
@@ -33,31 +177,375 @@ public class EventService {
             throw new RuntimeException("Only verified hosts can create events");
         }
 
-        return repo.save(e);
+        // Inventory bookkeeping is owned by the service, never by the request body
+        e.setVersion(0);
+        e.setHotMode(false);
+        e.setHotFlushSeq(0);
+        e.setHotOwner(null);
+
+        Event saved = repo.save(e);
+        cache.evict(saved.getEventId(), saved.getEventDate());
+        searchIndex.index(saved);
+        return saved;
     }
 
     // Get event by ID
     public Event getEventById(UUID id) {
-        return repo.findById(id)
-                .orElseThrow(() -> new RuntimeException("Event not found with id: " + id));
+        Event event = findEventById(id);
+        if (event == null) {
+            throw new RuntimeException("Event not found with id: " + id);
+        }
+        return event;
+    }
+
+    // ✅ Cached lookup, null when the event does not exist. The cached instance is shared,
+    // so hot events get their live ticket count on a copy.
+    public Event findEventById(UUID id) {
+        Event event = cache.getEvent(id, key -> repo.findById(key).orElse(null));
+        if (event == null) return null;
+
+        Integer hotSold = hotInventory.ticketsSold(id);
+        if (hotSold != null) {
+            event = new Event(event);
+            event.setTicketsSold(hotSold);
+        }
+        return event;
     }
 
     // Delete event
     public void deleteEvent(UUID id) {
+        if (hotInventory.isHot(id)) {
+            hotInventory.disable(id);
+        }
+        Event existing = repo.findById(id).orElse(null);
         repo.deleteById(id);
+        cache.evict(id, existing == null ? null : existing.getEventDate());
+        searchIndex.remove(id);
+        seatMaps.deleteSeatMap(id);
+        tierRepo.deleteByEventId(id);
     }
 
     // ✅ Update ticket availability (used by Booking Service)
+    // Positive values reserve tickets, negative values release them. The check and the
+    // increment happen in one conditional UPDATE, so concurrent bookings cannot oversell.
     public Event updateTicketAvailability(UUID id, int ticketsSold) {
+        Event event = applyTicketChange(id, ticketsSold);
+        availabilityStream.publish(id, event.getTotalTickets() - event.getTicketsSold());
+        return event;
+    }
+
+    private Event applyTicketChange(UUID id, int ticketsSold) {
+        // Hot events are served from the in-memory counters and flushed in batches
+        Event hot = applyHot(id, ticketsSold);
+        if (hot != null) return hot;
+
+        // Concurrent updates of the same event are group-committed into one UPDATE. An update
+        // inside a caller's transaction (a request with a requestId) must commit with it instead.
+        if (batcher.isEnabled() && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            InventoryBatcher.Result result;
+            try {
+                result = batcher.submit(id, ticketsSold).join();
+            } catch (CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException re ? re : ex;
+            }
+            if (!result.accepted()) {
+                if (result.event().isHotMode()) return applySwitchedToHot(id, ticketsSold, result.event());
+                throw new RuntimeException(ticketsSold >= 0
+                        ? "Not enough tickets available for event ID: " + id
+                        : "Cannot release more tickets than sold for event ID: " + id);
+            }
+            cache.evict(id, result.event().getEventDate());
+            return result.event();
+        }
+
+        int updated;
+        if (ticketsSold >= 0) {
+            updated = repo.reserveTickets(id, ticketsSold);
+        } else {
+            updated = repo.releaseTickets(id, -ticketsSold);
+        }
+
         Event event = repo.findById(id)
                 .orElseThrow(() -> new RuntimeException("Event not found with id: " + id));
+        if (updated == 0) {
+            if (event.isHotMode()) return applySwitchedToHot(id, ticketsSold, event);
+            if (ticketsSold >= 0) {
+                throw new RuntimeException("Not enough tickets available for event ID: " + id);
+            }
+            throw new RuntimeException("Cannot release more tickets than sold for event ID: " + id);
+        }
+        cache.evict(id, event.getEventDate());
+        return event;
+    }
+
+    private Event applyHot(UUID id, int ticketsSold) {
+        Integer hotSold = hotInventory.apply(id, ticketsSold);
+        if (hotSold == null) return null;
+        onRollback("hot inventory change " + ticketsSold + " of event " + id, () -> {
+            if (hotInventory.apply(id, -ticketsSold) == null) {
+                throw new IllegalStateException("the counter is no longer served here");
+            }
+        });
+        Event event = new Event(getEventById(id));
+        event.setTicketsSold(hotSold);
+        return event;
+    }
+
+    // Hot counters and seat maps write themselves, outside the caller's transaction (if any):
+    // their change is taken back when that transaction rolls back
+    private void onRollback(String change, Runnable undo) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) return;
+                try {
+                    undo.run();
+                } catch (RuntimeException ex) {
+                    log.error("Failed to undo {} after a rollback; reconcile the inventory", change, ex);
+                }
+            }
+        });
+    }
+
+    // The database refused the update because the row is hot: it either switched while this
+    // request waited for the row lock, or another instance owns the event's counter
+    private Event applySwitchedToHot(UUID id, int ticketsSold, Event row) {
+        Event hot = applyHot(id, ticketsSold);
+        if (hot == null) {
+            throw HotEventInventory.ownedElsewhere(id, row.getHotOwner());
+        }
+        return hot;
+    }
+
+    // ✅ Live availability stream for the given events
+    public SseEmitter streamAvailability(List<UUID> ids) {
+        Map<UUID, Integer> initial = new LinkedHashMap<>();
+        for (UUID id : ids) {
+            Event event = getEventById(id);
+            initial.put(id, event.getTotalTickets() - event.getTicketsSold());
+        }
+        return availabilityStream.subscribe(initial);
+    }
+
+    // ✅ Switch hot event mode on or off for one event
+    public Map<String, Object> setHotMode(UUID id, boolean enabled) {
+        if (enabled) {
+            hotInventory.enable(id);
+        } else {
+            hotInventory.disable(id);
+        }
+        Event event = repo.findById(id).orElse(null);
+        cache.evict(id, event == null ? null : event.getEventDate());
+        return hotInventory.metrics(id);
+    }
+
+    public Map<String, Object> getHotModeMetrics(UUID id) {
+        return hotInventory.metrics(id);
+    }
+
+    // ✅ Seat maps (assigned seating)
+    public List<Map<String, Object>> createSeatMap(UUID id, List<SeatSectionRequest> sections) {
+        Event event = getEventById(id);
+        int seats = sections.stream().mapToInt(sec -> sec.getRows() * sec.getSeatsPerRow()).sum();
+        if (seats > event.getTotalTickets()) {
+            throw new RuntimeException("Seat map has " + seats + " seats but the event only sells " + event.getTotalTickets());
+        }
+        return seatMaps.createSeatMap(id, sections);
+    }
+
+    public List<Map<String, Object>> getSeatMap(UUID id) {
+        return seatMaps.describe(id);
+    }
+
+    // Hold seats: the tickets are reserved first, then the seats; either both or neither
+    public TicketReservation holdSeats(UUID id, int quantity, String section, List<String> seatIds, String ticketType) {
+        boolean explicit = seatIds != null && !seatIds.isEmpty();
+        // Checked before any ticket is taken: one seat listed twice must not be charged twice
+        List<String> seats = explicit ? seatMaps.normalizeSeatIds(id, seatIds) : null;
+        int count = explicit ? seats.size() : quantity;
+
+        TicketReservation reservation = reserve(id, ticketType, count);
+        try {
+            reservation.setSeatIds(explicit
+                    ? seatMaps.holdSeats(id, seats)
+                    : seatMaps.holdBestAvailable(id, count, section));
+            return reservation;
+        } catch (RuntimeException ex) {
+            reserve(id, ticketType, -count);
+            throw ex;
+        }
+    }
+
+    public List<String> releaseSeats(UUID id, List<String> seatIds, String ticketType, String requestId) {
+        if (requestId == null) {
+            return applySeatRelease(id, seatIds, ticketType);
+        }
+        // A retry must not free seats that were sold again in the meantime
+        return processedRequests.applyOnce(requestId, id,
+                () -> applySeatRelease(id, seatIds, ticketType), () -> seatIds);
+    }
+
+    // The tickets go back first and the seats last: the seat map writes its bitsets itself, so
+    // a failure there must still be able to undo the tickets (by rollback inside a transaction)
+    private List<String> applySeatRelease(UUID id, List<String> requested, String ticketType) {
+        List<String> seatIds = seatMaps.normalizeSeatIds(id, requested);
+        reserve(id, ticketType, -seatIds.size());
+        try {
+            List<String> released = seatMaps.releaseSeats(id, seatIds);
+            onRollback("seat release " + seatIds + " of event " + id, () -> seatMaps.holdSeats(id, seatIds));
+            return released;
+        } catch (RuntimeException ex) {
+            if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+                reserve(id, ticketType, seatIds.size());
+            }
+            throw ex;
+        }
+    }
+
+    // ✅ Reserve every line of a cart or none: on the first failure the lines already taken are given back
+    public List<TicketReservation> reserveAll(List<ReservationLine> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new RuntimeException("Cart is empty");
+        }
+        if (lines.size() > MAX_CART_LINES) {
+            throw new RuntimeException("A cart holds at most " + MAX_CART_LINES + " lines");
+        }
+        for (ReservationLine line : lines) {
+            if (line.getEventId() == null || (!line.isSeated() && line.getQuantity() <= 0)) {
+                throw new RuntimeException("Each line needs an eventId and a positive quantity");
+            }
+        }
+
+        List<TicketReservation> done = new ArrayList<>(lines.size());
+        try {
+            for (ReservationLine line : lines) {
+                done.add(line.isSeated()
+                        ? holdSeats(line.getEventId(), line.getQuantity(), line.getSeatSection(), line.getSeatIds(), line.getTicketType())
+                        : reserve(line.getEventId(), line.getTicketType(), line.getQuantity()));
+            }
+            return done;
+        } catch (RuntimeException ex) {
+            for (int i = done.size() - 1; i >= 0; i--) {
+                TicketReservation r = done.get(i);
+                try {
+                    if (r.getSeatIds() != null) releaseSeats(r.getEventId(), r.getSeatIds(), lines.get(i).getTicketType(), null);
+                    else reserve(r.getEventId(), lines.get(i).getTicketType(), -r.getQuantity());
+                } catch (RuntimeException undo) {
+                    log.error("Failed to give back cart line for event {}; reconcile its tickets sold", r.getEventId(), undo);
+                }
+            }
+            throw ex;
+        }
+    }
+
+    // ✅ Ticket tiers (VIP, GA, early-bird...), created or updated by name
+    public List<TicketTier> saveTiers(UUID id, List<TicketTierRequest> requests) {
+        Event event = getEventById(id);
+        Map<String, TicketTier> tiers = new LinkedHashMap<>();
+        for (TicketTier t : tierRepo.findByEventIdOrderByPriceDesc(id)) {
+            tiers.put(t.getName().toUpperCase(), t);
+        }
+
+        for (TicketTierRequest req : requests) {
+            if (req.getName() == null || req.getName().isBlank() || req.getPrice() == null || req.getTotalTickets() == null) {
+                throw new RuntimeException("Tier name, price and totalTickets are required");
+            }
+            TicketTier tier = tiers.computeIfAbsent(req.getName().toUpperCase(), k -> {
+                TicketTier t = new TicketTier();
+                t.setEventId(id);
+                t.setName(req.getName());
+                return t;
+            });
+            if (req.getTotalTickets() < tier.getTicketsSold()) {
+                throw new RuntimeException("Tier " + req.getName() + " already sold " + tier.getTicketsSold() + " tickets");
+            }
+            tier.setPrice(req.getPrice());
+            tier.setTotalTickets(req.getTotalTickets());
+        }
+
+        int tierTotal = tiers.values().stream().mapToInt(TicketTier::getTotalTickets).sum();
+        if (tierTotal > event.getTotalTickets()) {
+            throw new RuntimeException("Tiers add up to " + tierTotal + " tickets but the event only sells " + event.getTotalTickets());
+        }
+        return tierRepo.saveAll(tiers.values());
+    }
+
+    public List<TicketTier> getTiers(UUID id) {
+        return tierRepo.findByEventIdOrderByPriceDesc(id);
+    }
+
+    /**
+     * Reserves (positive quantity) or releases (negative) tickets of one tier and returns the unit
+     * price to snapshot on the booking. Events without tiers use the event-wide pool and price.
+     * The tier row is updated first with its own conditional UPDATE; the event aggregate then goes
+     * through the regular inventory path (hot mode / group commit) and the tier is rolled back if
+     * that fails.
+     */
+    public TicketReservation reserve(UUID id, String ticketType, int quantity) {
+        return reserve(id, ticketType, quantity, null);
+    }
+
+    // ✅ Same, but a retried request (same requestId) is applied only once
+    public TicketReservation reserve(UUID id, String ticketType, int quantity, String requestId) {
+        if (requestId == null) {
+            return applyReservation(id, ticketType, quantity);
+        }
+        return processedRequests.applyOnce(requestId, id,
+                () -> applyReservation(id, ticketType, quantity),
+                () -> currentReservation(id, ticketType, quantity));
+    }
+
+    // Answer for a request that was already applied: the same shape, with today's availability
+    private TicketReservation currentReservation(UUID id, String ticketType, int quantity) {
+        TicketTier tier = ticketType == null ? null
+                : tierRepo.findByEventIdAndNameIgnoreCase(id, ticketType).orElse(null);
+        if (tier != null) {
+            return new TicketReservation(id, tier.getName(), quantity, tier.getPrice(),
+                    tier.getTotalTickets() - tier.getTicketsSold());
+        }
+        Event event = getEventById(id);
+        return new TicketReservation(id, ticketType, quantity, event.getTicketPrice(),
+                event.getTotalTickets() - event.getTicketsSold());
+    }
+
+    private TicketReservation applyReservation(UUID id, String ticketType, int quantity) {
+        TicketTier tier = ticketType == null ? null
+                : tierRepo.findByEventIdAndNameIgnoreCase(id, ticketType).orElse(null);
+
+        if (tier == null) {
+            // A tiered event only sells through its tiers. An untyped release is still allowed:
+            // it returns a booking made before the tiers were defined to the event-wide pool.
+            if ((ticketType != null || quantity >= 0) && tierRepo.existsByEventId(id)) {
+                throw new RuntimeException(ticketType == null
+                        ? "Ticket type is required for event ID: " + id
+                        : "Unknown ticket type '" + ticketType + "' for event ID: " + id);
+            }
+            Event event = updateTicketAvailability(id, quantity);
+            return new TicketReservation(id, ticketType, quantity, event.getTicketPrice(),
+                    event.getTotalTickets() - event.getTicketsSold());
+        }
+
+        int updated = quantity >= 0
+                ? tierRepo.reserveTickets(tier.getTierId(), quantity)
+                : tierRepo.releaseTickets(tier.getTierId(), -quantity);
+        if (updated == 0) {
+            throw new RuntimeException(quantity >= 0
+                    ? "Not enough " + tier.getName() + " tickets available for event ID: " + id
+                    : "Cannot release more " + tier.getName() + " tickets than sold for event ID: " + id);
+        }
 
-        int remainingTickets = event.getTotalTickets() - event.getTicketsSold();
-        if (ticketsSold > remainingTickets) {
-            throw new RuntimeException("Not enough tickets available for event ID: " + id);
+        try {
+            updateTicketAvailability(id, quantity);
+        } catch (RuntimeException ex) {
+            if (quantity >= 0) tierRepo.releaseTickets(tier.getTierId(), quantity);
+            else tierRepo.reserveTickets(tier.getTierId(), -quantity);
+            throw ex;
         }
 
-        event.setTicketsSold(event.getTicketsSold() + ticketsSold);
-        return repo.save(event);
+        int remaining = tierRepo.findById(tier.getTierId())
+                .map(t -> t.getTotalTickets() - t.getTicketsSold())
+                .orElse(0);
+        return new TicketReservation(id, tier.getName(), quantity, tier.getPrice(), remaining);
     }
 }
@@ -0,0 +1,201 @@
+package com.ticketapp.event_service.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remaining-ticket counter for one hot event, split across CAS-updated stripes so that
+ * concurrent reservations rarely touch the same cache line. The sum of all stripes is the
+ * number of tickets still for sale; a stripe is never decremented below zero, so the counter
+ * can never hand out more tickets than it was loaded with.
+ *
+ * Releases are checked against one sold count instead of the stripe sum, which can read low
+ * while a reservation borrows across stripes. The count is only lowered by a CAS that keeps it
+ * at zero or above, and it is raised after the stripes are taken and lowered before they are
+ * refilled, so remaining + sold never exceeds the total and no release can push remaining above it.
+ */
+class HotEventCounter {
+
+    // 16 longs = 128 bytes between stripes, keeps neighbouring stripes off the same cache line
+    private static final int PAD = 16;
+
+    private final UUID eventId;
+    private final int totalTickets;
+    private final int stripeCount;
+    private final AtomicLongArray stripes;
+    // Tickets sold; only bounds releases, the hot path reads the stripes
+    private final AtomicLong sold;
+
+    // Net tickets sold since the last flush to the events table
+    private final LongAdder pendingDelta = new LongAdder();
+
+    private final LongAdder reservations = new LongAdder();
+    private final LongAdder releases = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder casRetries = new LongAdder();
+    private final LongAdder stripeMisses = new LongAdder();
+
+    private volatile boolean closed;
+
+    HotEventCounter(UUID eventId, int totalTickets, int remaining, int stripeCount) {
+        this.eventId = eventId;
+        this.totalTickets = totalTickets;
+        this.stripeCount = stripeCount;
+        this.stripes = new AtomicLongArray(stripeCount * PAD);
+        this.sold = new AtomicLong(totalTickets - remaining);
+
+        long share = remaining / stripeCount;
+        long extra = remaining % stripeCount;
+        for (int i = 0; i < stripeCount; i++) {
+            stripes.set(i * PAD, share + (i < extra ? 1 : 0));
+        }
+    }
+
+    UUID getEventId() {
+        return eventId;
+    }
+
+    int getTotalTickets() {
+        return totalTickets;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    void reopen() {
+        closed = false;
+    }
+
+    // ✅ Take n tickets, preferring this thread's home stripe and borrowing from others if needed
+    boolean tryReserve(int n) {
+        int home = homeStripe();
+        if (tryTake(home, n)) {
+            sold.addAndGet(n);
+            reservations.increment();
+            return true;
+        }
+
+        stripeMisses.increment();
+        long[] taken = new long[stripeCount];
+        long collected = 0;
+        for (int i = 0; i < stripeCount && collected < n; i++) {
+            int idx = (home + i) % stripeCount;
+            long got = takeUpTo(idx, n - collected);
+            taken[idx] += got;
+            collected += got;
+        }
+
+        if (collected == n) {
+            sold.addAndGet(n);
+            reservations.increment();
+            return true;
+        }
+
+        // Not enough across all stripes: give back what we borrowed
+        for (int i = 0; i < stripeCount; i++) {
+            if (taken[i] > 0) stripes.addAndGet(i * PAD, taken[i]);
+        }
+        rejections.increment();
+        return false;
+    }
+
+    // ✅ Return n tickets to the pool; refuses to grow the pool beyond the tickets actually sold
+    boolean release(int n) {
+        if (!unsell(n)) return false;
+        stripes.addAndGet(homeStripe() * PAD, n);
+        releases.increment();
+        return true;
+    }
+
+    // Undo a reservation (delta > 0) or release (delta < 0) that could not be journaled; the
+    // decrease goes first so remaining + sold stays within the total
+    void rollback(int delta) {
+        if (delta > 0) {
+            sold.addAndGet(-delta);
+            stripes.addAndGet(homeStripe() * PAD, delta);
+        } else if (delta < 0) {
+            stripes.addAndGet(homeStripe() * PAD, delta);
+            sold.addAndGet(-delta);
+        }
+    }
+
+    long remaining() {
+        long sum = 0;
+        for (int i = 0; i < stripeCount; i++) {
+            sum += stripes.get(i * PAD);
+        }
+        return sum;
+    }
+
+    void addPending(int delta) {
+        pendingDelta.add(delta);
+    }
+
+    long drainPending() {
+        return pendingDelta.sumThenReset();
+    }
+
+    long pending() {
+        return pendingDelta.sum();
+    }
+
+    Map<String, Object> metrics() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("eventId", eventId);
+        m.put("totalTickets", totalTickets);
+        m.put("remaining", remaining());
+        m.put("unflushedTicketsSold", pending());
+        m.put("stripes", stripeCount);
+        m.put("reservations", reservations.sum());
+        m.put("releases", releases.sum());
+        m.put("rejections", rejections.sum());
+        m.put("casRetries", casRetries.sum());
+        m.put("stripeMisses", stripeMisses.sum());
+        return m;
+    }
+
+    // Lower the sold count by n unless fewer than n tickets are sold
+    private boolean unsell(int n) {
+        while (true) {
+            long cur = sold.get();
+            if (cur < n) return false;
+            if (sold.compareAndSet(cur, cur - n)) return true;
+            casRetries.increment();
+        }
+    }
+
+    private boolean tryTake(int idx, int n) {
+        int slot = idx * PAD;
+        while (true) {
+            long cur = stripes.get(slot);
+            if (cur < n) return false;
+            if (stripes.compareAndSet(slot, cur, cur - n)) return true;
+            casRetries.increment();
+        }
+    }
+
+    private long takeUpTo(int idx, long want) {
+        int slot = idx * PAD;
+        while (true) {
+            long cur = stripes.get(slot);
+            if (cur <= 0) return 0;
+            long take = Math.min(cur, want);
+            if (stripes.compareAndSet(slot, cur, cur - take)) return take;
+            casRetries.increment();
+        }
+    }
+
+    private int homeStripe() {
+        long id = Thread.currentThread().threadId();
+        return (int) ((id ^ (id >>> 16)) & 0x7fffffff) % stripeCount;
+    }
+}
@@ -0,0 +1,425 @@
+package com.ticketapp.event_service.service;
+
+import com.ticketapp.event_service.entity.Event;
+import com.ticketapp.event_service.repository.EventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * "Hot event mode": keeps the remaining tickets of selected events in memory
+ * ({@link HotEventCounter}) and writes the sold count back to the events table in periodic
+ * batches instead of one UPDATE per booking.
+ *
+ * Every accepted reservation or release is appended to a journal segment before the caller
+ * gets an answer. A flush rotates the segment and applies its net delta per event together
+ * with the segment sequence number, so replaying a segment after a crash is applied at most
+ * once. On startup all leftover segments are replayed into the database before the counters
+ * are rebuilt from it. Sequence numbers only grow: new segments start above the leftover ones
+ * and above every sequence already in the database, and a hot event's live segment is moved
+ * above its stored sequence, so a clock that steps back or a lost journal directory can't make
+ * a new delta look already written. A delta the database refuses is kept (in memory and in the
+ * live segment) and retried on every flush; it is never dropped.
+ *
+ * With events.hot.journal-fsync (the default) every journal write is forced to disk before
+ * the answer; without it a crash of the process loses nothing, but a power failure can lose
+ * the last sales that were acknowledged.
+ *
+ * A hot event has exactly one owner: the instance that switched it on, recorded in
+ * {@code hot_owner} (events.hot.instance-id, which must be stable across restarts because the
+ * journal lives on that instance's disk). Only the owner builds a counter for it; while the
+ * row is hot the database path refuses to sell, so requests that reach another instance fail
+ * instead of selling the remainder a second time. Route a hot event's inventory calls to its
+ * owner, or run a single event-service instance while hot mode is in use.
+ */
+@Service
+public class HotEventInventory {
+
+    private static final Logger log = LoggerFactory.getLogger(HotEventInventory.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final EventRepository repo;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentHashMap<UUID, HotEventCounter> counters = new ConcurrentHashMap<>();
+
+    private final ReentrantLock journalLock = new ReentrantLock();
+    // Serializes enable/disable; a lock rather than synchronized, since both do database I/O
+    // and a virtual thread blocked inside synchronized would pin its carrier
+    private final ReentrantLock modeLock = new ReentrantLock();
+    // One flush at a time, held from draining the counters until the deltas are written or
+    // carried over; disable holds it across its final flush and the switch back to the database.
+    // Lock order: modeLock, flushLock, journalLock.
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // Deltas the database refused, already re-journaled in the live segment (guarded by flushLock)
+    private final Map<UUID, Long> unapplied = new HashMap<>();
+    private FileChannel journal;
+    private long segmentSeq;
+
+    @Value("${events.hot.stripes:16}")
+    private int stripeCount;
+
+    @Value("${events.hot.journal-path:/tmp/event-service/hot-inventory}")
+    private String journalPath;
+
+    @Value("${events.hot.journal-fsync:true}")
+    private boolean fsync;
+
+    @Value("${events.hot.instance-id:${HOSTNAME:localhost}-${server.port:8083}}")
+    private String instanceId;
+
+    public HotEventInventory(EventRepository repo, PlatformTransactionManager transactionManager) {
+        this.repo = repo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void recover() throws IOException {
+        Path dir = Path.of(journalPath);
+        Files.createDirectories(dir);
+
+        long lastSeq = 0;
+        for (Path segment : listSegments(dir)) {
+            long seq = segmentSeq(segment);
+            readSegment(segment).forEach((id, delta) -> {
+                if (delta != 0 && !write(id, delta, seq, true)) {
+                    unapplied.merge(id, delta, Long::sum);
+                }
+            });
+            Files.delete(segment);
+            lastSeq = Math.max(lastSeq, seq);
+        }
+
+        segmentSeq = Math.max(Math.max(lastSeq, repo.findMaxHotFlushSeq()) + 1, System.currentTimeMillis());
+        journal = openSegment(segmentSeq);
+        for (Map.Entry<UUID, Long> u : unapplied.entrySet()) {
+            append(u.getKey(), u.getValue().intValue());
+        }
+
+        repo.claimUnownedHotEvents(instanceId);
+        for (Event e : repo.findByHotModeTrueAndHotOwner(instanceId)) {
+            counters.put(e.getEventId(), newCounter(e, unapplied.getOrDefault(e.getEventId(), 0L)));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        flush();
+        journal.close();
+    }
+
+    public boolean isHot(UUID eventId) {
+        return counters.containsKey(eventId);
+    }
+
+    // Tickets sold as seen by the in-memory counter, or null when the event is not hot here
+    public Integer ticketsSold(UUID eventId) {
+        HotEventCounter counter = counters.get(eventId);
+        return counter == null ? null : (int) (counter.getTotalTickets() - counter.remaining());
+    }
+
+    /**
+     * Applies a reservation (positive) or release (negative) to a hot event.
+     * Returns the tickets sold as seen by the counter, or null when this instance holds no
+     * counter for the event and the caller should use the database path.
+     */
+    public Integer apply(UUID eventId, int delta) {
+        HotEventCounter counter = counters.get(eventId);
+        if (counter == null) return null;
+        if (counter.isClosed()) throw switching(eventId);
+
+        if (delta >= 0) {
+            if (!counter.tryReserve(delta)) {
+                throw new RuntimeException("Not enough tickets available for event ID: " + eventId);
+            }
+        } else if (!counter.release(-delta)) {
+            throw new RuntimeException("Cannot release more tickets than sold for event ID: " + eventId);
+        }
+
+        journalLock.lock();
+        try {
+            if (counter.isClosed()) {
+                counter.rollback(delta);
+                throw switching(eventId);
+            }
+            append(eventId, delta);
+            counter.addPending(delta);
+        } catch (IOException ex) {
+            counter.rollback(delta);
+            throw new UncheckedIOException("Failed to journal ticket update for event ID: " + eventId, ex);
+        } finally {
+            journalLock.unlock();
+        }
+
+        return (int) (counter.getTotalTickets() - counter.remaining());
+    }
+
+    // ✅ Turn hot mode on: snapshot the row under a lock and mark it hot. The counter is
+    // published closed before the row lock is released and opened once the switch has
+    // committed, so a database-path request that was waiting on the lock finds the row hot
+    // (its conditional UPDATE matches nothing) and is sent to the counter instead.
+    public void enable(UUID eventId) {
+        modeLock.lock();
+        try {
+            if (counters.containsKey(eventId)) return;
+            HotEventCounter counter = transactionTemplate.execute(status -> {
+                Event e = repo.findByIdForUpdate(eventId)
+                        .orElseThrow(() -> new RuntimeException("Event not found with id: " + eventId));
+                if (e.isHotMode() && e.getHotOwner() != null && !instanceId.equals(e.getHotOwner())) {
+                    throw ownedElsewhere(eventId, e.getHotOwner());
+                }
+                raiseSegmentSeq(e.getHotFlushSeq());
+                HotEventCounter c = newCounter(e, 0);
+                c.close();
+                counters.put(eventId, c);
+                repo.enterHotMode(eventId, instanceId);
+                return c;
+            });
+            counter.reopen();
+        } catch (RuntimeException ex) {
+            counters.remove(eventId);
+            throw ex;
+        } finally {
+            modeLock.unlock();
+        }
+    }
+
+    // ✅ Turn hot mode off: stop accepting in memory, write everything back, and only then
+    // let requests go to the database again
+    public void disable(UUID eventId) {
+        modeLock.lock();
+        try {
+            HotEventCounter counter = counters.get(eventId);
+            if (counter == null) {
+                Event e = repo.findById(eventId).orElse(null);
+                if (e != null && e.isHotMode()) throw ownedElsewhere(eventId, e.getHotOwner());
+                return;
+            }
+
+            journalLock.lock();
+            try {
+                counter.close();
+            } finally {
+                journalLock.unlock();
+            }
+
+            // Waits for a scheduled flush that is still writing, then flushes what is left
+            flushLock.lock();
+            boolean switched = false;
+            try {
+                flushLocked();
+                if (counter.pending() != 0 || unapplied.containsKey(eventId)) {
+                    throw new RuntimeException("Could not flush hot inventory for event ID: " + eventId + ", still in hot mode");
+                }
+                repo.leaveHotMode(eventId);
+                counters.remove(eventId);
+                switched = true;
+            } finally {
+                if (!switched) counter.reopen();
+                flushLock.unlock();
+            }
+        } finally {
+            modeLock.unlock();
+        }
+    }
+
+    public Map<String, Object> metrics(UUID eventId) {
+        HotEventCounter counter = counters.get(eventId);
+        if (counter == null) {
+            return Map.of("eventId", eventId, "hotMode", false);
+        }
+        Map<String, Object> m = counter.metrics();
+        m.put("hotMode", true);
+        m.put("owner", instanceId);
+        return m;
+    }
+
+    // ✅ Write-behind: rotate the journal and push the net delta of each event in one UPDATE
+    @Scheduled(fixedDelayString = "${events.hot.flush-interval-ms:500}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushLocked();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushLocked() {
+        // Deltas refused last time are in the live segment too, so they go out with it
+        Map<UUID, Long> deltas = new HashMap<>(unapplied);
+        unapplied.clear();
+        long seq;
+        Path closedSegment;
+
+        journalLock.lock();
+        try {
+            for (HotEventCounter c : counters.values()) {
+                long d = c.drainPending();
+                if (d != 0) deltas.merge(c.getEventId(), d, Long::sum);
+            }
+
+            if (deltas.isEmpty()) return;
+
+            seq = segmentSeq;
+            closedSegment = segmentPath(seq);
+            journal.close();
+            segmentSeq = Math.max(seq + 1, System.currentTimeMillis());
+            journal = openSegment(segmentSeq);
+        } catch (IOException ex) {
+            deltas.forEach((id, d) -> unapplied.merge(id, d, Long::sum));
+            throw new UncheckedIOException("Failed to rotate hot inventory journal", ex);
+        } finally {
+            journalLock.unlock();
+        }
+
+        Map<UUID, Long> failed = new HashMap<>();
+        for (Map.Entry<UUID, Long> d : deltas.entrySet()) {
+            try {
+                if (!write(d.getKey(), d.getValue(), seq, false)) failed.put(d.getKey(), d.getValue());
+            } catch (RuntimeException ex) {
+                log.warn("Hot inventory flush failed for event {}, delta {} kept for retry: {}",
+                        d.getKey(), d.getValue(), ex.getMessage());
+                failed.put(d.getKey(), d.getValue());
+            }
+        }
+
+        // Carry failed deltas into the live segment so the closed one can be dropped
+        failed.forEach((id, d) -> unapplied.merge(id, d, Long::sum));
+        journalLock.lock();
+        try {
+            for (Map.Entry<UUID, Long> f : failed.entrySet()) {
+                append(f.getKey(), f.getValue().intValue());
+            }
+            Files.deleteIfExists(closedSegment);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to rewrite hot inventory journal", ex);
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    // Writes one segment's delta; false when the row refuses it and it has to be kept.
+    // replay: the segment is left over from before a restart and may have been written already
+    private boolean write(UUID eventId, long delta, long seq, boolean replay) {
+        if (repo.applyHotDelta(eventId, (int) delta, seq) == 1) return true;
+
+        Long applied = repo.findHotFlushSeq(eventId).orElse(null);
+        if (applied == null) {
+            log.warn("Hot inventory delta {} for deleted event {} discarded", delta, eventId);
+            return true;
+        }
+        if (applied >= seq) {
+            if (replay) return true; // segment replayed after it was already written
+            // A live segment at or below what the row has: never treat fresh sales as written
+            log.error("Hot inventory delta {} for event {} has journal sequence {} but the row is at {}; kept for retry",
+                    delta, eventId, seq, applied);
+            raiseSegmentSeq(applied);
+            return false;
+        }
+        log.error("Hot inventory delta {} for event {} is out of bounds, kept for retry", delta, eventId);
+        return false;
+    }
+
+    // Moves the live segment above seq (renaming keeps what is already in it)
+    private void raiseSegmentSeq(long seq) {
+        journalLock.lock();
+        try {
+            if (segmentSeq > seq) return;
+            long next = Math.max(seq + 1, System.currentTimeMillis());
+            journal.close();
+            Files.move(segmentPath(segmentSeq), segmentPath(next));
+            segmentSeq = next;
+            journal = openSegment(segmentSeq);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to move hot inventory journal segment", ex);
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private static RuntimeException switching(UUID eventId) {
+        return new RuntimeException("Event ID " + eventId + " is switching hot mode, please retry");
+    }
+
+    static RuntimeException ownedElsewhere(UUID eventId, String owner) {
+        return new RuntimeException("Event ID " + eventId + " is in hot mode on instance " + owner
+                + "; its inventory is only served there");
+    }
+
+    // unwritten: net tickets sold that are journaled but not yet in the row
+    private HotEventCounter newCounter(Event e, long unwritten) {
+        long remaining = e.getTotalTickets() - e.getTicketsSold() - unwritten;
+        return new HotEventCounter(e.getEventId(), e.getTotalTickets(), (int) Math.max(remaining, 0), stripeCount);
+    }
+
+    private void append(UUID eventId, int delta) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap((eventId + "," + delta + "\n").getBytes(StandardCharsets.US_ASCII));
+        while (buf.hasRemaining()) {
+            journal.write(buf);
+        }
+        if (fsync) journal.force(false);
+    }
+
+    private FileChannel openSegment(long seq) throws IOException {
+        return FileChannel.open(segmentPath(seq),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segmentPath(long seq) {
+        return Path.of(journalPath).resolve(SEGMENT_PREFIX + seq + SEGMENT_SUFFIX);
+    }
+
+    private static long segmentSeq(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static List<Path> listSegments(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted((a, b) -> Long.compare(segmentSeq(a), segmentSeq(b)))
+                    .toList();
+        }
+    }
+
+    private static Map<UUID, Long> readSegment(Path segment) throws IOException {
+        Map<UUID, Long> deltas = new HashMap<>();
+        for (String line : Files.readAllLines(segment, StandardCharsets.US_ASCII)) {
+            int comma = line.indexOf(',');
+            if (comma < 0) continue; // torn last line from a crash mid-write
+            try {
+                deltas.merge(UUID.fromString(line.substring(0, comma)),
+                        Long.parseLong(line.substring(comma + 1)), Long::sum);
+            } catch (IllegalArgumentException ignored) {
+                // partial record, the caller never got an answer for it
+            }
+        }
+        return deltas;
+    }
+}
@@ -0,0 +1,154 @@
+package com.ticketapp.event_service.service;
+
+import com.ticketapp.event_service.entity.Event;
+import com.ticketapp.event_service.repository.EventRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for ticket reservations and releases. Concurrent requests for the same event
+ * are collected for a short window (or until the batch is full), decided one by one in arrival
+ * order against a single locked read of the row, and written back with one UPDATE. Every
+ * caller still gets its own accept/reject answer.
+ */
+@Service
+public class InventoryBatcher {
+
+    /**
+     * Outcome of one request inside a batch; {@code event} is the row after the batch commit.
+     * A request is never accepted against a row in hot mode.
+     */
+    public record Result(boolean accepted, Event event) { }
+
+    private static final class Request {
+        final int delta;
+        final CompletableFuture<Result> result = new CompletableFuture<>();
+
+        Request(int delta) {
+            this.delta = delta;
+        }
+    }
+
+    private static final class Batch {
+        final UUID eventId;
+        final List<Request> requests = new ArrayList<>();
+
+        Batch(UUID eventId) {
+            this.eventId = eventId;
+        }
+    }
+
+    private final EventRepository repo;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentHashMap<UUID, Batch> open = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService workers;
+
+    @Value("${events.inventory.batch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${events.inventory.batch.window-ms:2}")
+    private long windowMs;
+
+    @Value("${events.inventory.batch.max-size:64}")
+    private int maxSize;
+
+    public InventoryBatcher(EventRepository repo,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${events.inventory.batch.workers:8}") int workerCount) {
+        this.repo = repo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.workers = Executors.newFixedThreadPool(workerCount);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // ✅ Queue a reservation (positive) or release (negative) for the next batch of this event
+    public CompletableFuture<Result> submit(UUID eventId, int delta) {
+        Request request = new Request(delta);
+        Batch[] full = new Batch[1];
+
+        open.compute(eventId, (id, batch) -> {
+            if (batch == null) {
+                Batch created = new Batch(id);
+                timer.schedule(() -> closeOnTimeout(created), windowMs, TimeUnit.MILLISECONDS);
+                batch = created;
+            }
+            batch.requests.add(request);
+            if (batch.requests.size() >= maxSize) {
+                full[0] = batch;
+                return null;
+            }
+            return batch;
+        });
+
+        if (full[0] != null) {
+            workers.execute(() -> run(full[0]));
+        }
+        return request.result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdown();
+        workers.shutdown();
+    }
+
+    private void closeOnTimeout(Batch batch) {
+        // A batch that filled up was already removed and dispatched
+        if (open.remove(batch.eventId, batch)) {
+            workers.execute(() -> run(batch));
+        }
+    }
+
+    private void run(Batch batch) {
+        boolean[] accepted = new boolean[batch.requests.size()];
+        Event after;
+        try {
+            after = transactionTemplate.execute(status -> {
+                Event e = repo.findByIdForUpdate(batch.eventId)
+                        .orElseThrow(() -> new RuntimeException("Event not found with id: " + batch.eventId));
+                // Switched to hot mode while this batch waited for the lock: the counter owns
+                // the inventory now, so nothing is decided here and the callers go there
+                if (e.isHotMode()) return e;
+
+                int sold = e.getTicketsSold();
+                int total = e.getTotalTickets();
+                for (int i = 0; i < accepted.length; i++) {
+                    int next = sold + batch.requests.get(i).delta;
+                    if (next >= 0 && next <= total) {
+                        sold = next;
+                        accepted[i] = true;
+                    }
+                }
+
+                if (sold != e.getTicketsSold()) {
+                    e.setTicketsSold(sold); // one UPDATE at commit, row is locked
+                }
+                return e;
+            });
+        } catch (RuntimeException ex) {
+            batch.requests.forEach(r -> r.result.completeExceptionally(ex));
+            return;
+        }
+
+        for (int i = 0; i < accepted.length; i++) {
+            batch.requests.get(i).result.complete(new Result(accepted[i], after));
+        }
+    }
+}
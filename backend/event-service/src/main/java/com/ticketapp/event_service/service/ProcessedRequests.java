@@ -0,0 +1,52 @@
+package com.ticketapp.event_service.service;
+
+import com.ticketapp.event_service.repository.ProcessedRequestRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Remembers which requestIds were applied, in the processed_requests table, so a redelivered
+ * update is recognised by every instance and across restarts.
+ *
+ * The row is inserted in the same transaction as the update it guards: if applying fails, or
+ * the instance dies before the commit, the claim is rolled back with it and the redelivery
+ * applies the update. Only the in-memory parts of an update, a hot event's counter and the seat
+ * map bitsets, write themselves: they are undone when the transaction rolls back, so just a
+ * crash right before the commit can leave them applied without the claim.
+ */
+@Service
+public class ProcessedRequests {
+
+    private final ProcessedRequestRepository repo;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${events.requests.retention-hours:168}")
+    private long retentionHours;
+
+    public ProcessedRequests(ProcessedRequestRepository repo, PlatformTransactionManager transactionManager) {
+        this.repo = repo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Runs update the first time requestId is seen and duplicate on every later delivery. The
+     * claim commits or rolls back together with the database writes of update.
+     */
+    public <T> T applyOnce(String requestId, UUID eventId, Supplier<T> update, Supplier<T> duplicate) {
+        return transactionTemplate.execute(status ->
+                repo.insertIfAbsent(requestId, eventId, LocalDateTime.now()) == 1 ? update.get() : duplicate.get());
+    }
+
+    // Redeliveries stop long before this (the outbox gives up after a few hours at most)
+    @Scheduled(fixedDelayString = "${events.requests.purge-interval-ms:3600000}")
+    public void purge() {
+        repo.deleteOlderThan(LocalDateTime.now().minusHours(retentionHours));
+    }
+}
@@ -0,0 +1,461 @@
+package com.ticketapp.event_service.service;
+
+import com.ticketapp.event_service.dto.SeatSectionRequest;
+import com.ticketapp.event_service.entity.SeatSection;
+import com.ticketapp.event_service.repository.SeatSectionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Assigned-seating engine. Each event's seat map is kept in memory as one bitset per section
+ * (mirrored in {@link SeatSection#getTakenBits()}), so finding N adjacent seats in a 60k-seat
+ * venue is a scan over a few thousand 64-bit words rather than a query over seat rows.
+ *
+ * Seat IDs look like {@code SECTION-ROW-SEAT} with 1-based row and seat numbers, e.g. {@code A-12-7}.
+ * Holds and releases are applied in memory under a per-section lock that covers only the bitset.
+ * The write-back happens after that lock is released: one writer per section at a time stores
+ * the current bitset with a compare-and-set on the section version, which also covers every
+ * change made while it waited (group commit). If another instance changed the section first,
+ * or the write fails, the in-memory copy is dropped and reloaded, and requests whose change was
+ * not written yet retry.
+ */
+@Service
+public class SeatMapService {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    static final class Section {
+        final UUID id;
+        final String name;
+        final int order;
+        final int rows;
+        final int seatsPerRow;
+        final int wordsPerRow;
+        // Guards bits/freeInRow/changes/retired; never held across database I/O
+        final ReentrantLock lock = new ReentrantLock();
+        // One write-back at a time; guards version and written
+        final ReentrantLock writeLock = new ReentrantLock();
+
+        long[] bits;
+        int[] freeInRow;
+        long version;
+        // In-memory changes since load, and how many of them the database has
+        long changes;
+        volatile long written;
+        // Set after a failed write; the bitset may hold changes that will never be written
+        boolean retired;
+
+        Section(SeatSection s) {
+            this.id = s.getSectionId();
+            this.name = s.getName();
+            this.order = s.getSortOrder();
+            this.rows = s.getRowCount();
+            this.seatsPerRow = s.getSeatsPerRow();
+            this.wordsPerRow = (seatsPerRow + 63) / 64;
+            load(s);
+        }
+
+        void load(SeatSection s) {
+            this.bits = toLongs(s.getTakenBits(), rows * wordsPerRow);
+            this.version = s.getBitsVersion();
+            this.freeInRow = new int[rows];
+            for (int r = 0; r < rows; r++) {
+                int taken = 0;
+                for (int w = 0; w < wordsPerRow; w++) taken += Long.bitCount(bits[r * wordsPerRow + w]);
+                freeInRow[r] = seatsPerRow - taken;
+            }
+        }
+
+        boolean isTaken(int row, int seat) {
+            return (bits[row * wordsPerRow + (seat >>> 6)] & (1L << seat)) != 0;
+        }
+
+        // No-op when the seat is already in that state, so freeInRow always matches the bits
+        void set(int row, int seat, boolean taken) {
+            if (isTaken(row, seat) == taken) return;
+            int w = row * wordsPerRow + (seat >>> 6);
+            if (taken) bits[w] |= 1L << seat;
+            else bits[w] &= ~(1L << seat);
+            freeInRow[row] += taken ? -1 : 1;
+        }
+
+        int available() {
+            int sum = 0;
+            for (int f : freeInRow) sum += f;
+            return sum;
+        }
+
+        // Front-most row with a run of n free seats; within that row the run closest to the centre
+        int[] findBest(int n) {
+            double centre = (seatsPerRow - n) / 2.0;
+            for (int r = 0; r < rows; r++) {
+                if (freeInRow[r] < n) continue;
+                int best = -1;
+                double bestDist = Double.MAX_VALUE;
+                int run = 0;
+                int seat = 0;
+                while (seat < seatsPerRow) {
+                    // Skip fully taken words in one step
+                    if ((seat & 63) == 0 && seat + 64 <= seatsPerRow && bits[r * wordsPerRow + (seat >>> 6)] == -1L) {
+                        run = 0;
+                        seat += 64;
+                        continue;
+                    }
+                    run = isTaken(r, seat) ? 0 : run + 1;
+                    if (run >= n) {
+                        int start = seat - n + 1;
+                        double dist = Math.abs(start - centre);
+                        if (dist < bestDist) {
+                            best = start;
+                            bestDist = dist;
+                        }
+                    }
+                    seat++;
+                }
+                if (best >= 0) return new int[]{r, best};
+            }
+            return null;
+        }
+
+        String seatId(int row, int seat) {
+            return name + "-" + (row + 1) + "-" + (seat + 1);
+        }
+    }
+
+    private record SeatRef(Section section, int row, int seat) { }
+
+    private final SeatSectionRepository repo;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentHashMap<UUID, List<Section>> maps = new ConcurrentHashMap<>();
+
+    public SeatMapService(SeatSectionRepository repo, PlatformTransactionManager transactionManager) {
+        this.repo = repo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // A write-back carries other requests' changes too, so it never joins a caller's transaction
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // ✅ Define (or replace) the seat map of an event
+    public List<Map<String, Object>> createSeatMap(UUID eventId, List<SeatSectionRequest> sections) {
+        if (sections == null || sections.isEmpty()) {
+            throw new RuntimeException("Seat map needs at least one section");
+        }
+        List<SeatSection> entities = new ArrayList<>();
+        int order = 0;
+        for (SeatSectionRequest req : sections) {
+            if (req.getName() == null || req.getName().isBlank() || req.getRows() <= 0 || req.getSeatsPerRow() <= 0) {
+                throw new RuntimeException("Invalid seat section: " + req.getName());
+            }
+            int words = req.getRows() * ((req.getSeatsPerRow() + 63) / 64);
+            entities.add(new SeatSection(eventId, req.getName(), order++, req.getRows(), req.getSeatsPerRow(),
+                    new byte[words * Long.BYTES]));
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            repo.deleteByEventId(eventId);
+            repo.saveAll(entities);
+        });
+        maps.remove(eventId);
+        return describe(eventId);
+    }
+
+    public List<Map<String, Object>> describe(UUID eventId) {
+        List<Section> sections = requireSections(eventId);
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (Section s : sections) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("section", s.name);
+            m.put("rows", s.rows);
+            m.put("seatsPerRow", s.seatsPerRow);
+            s.lock.lock();
+            try {
+                m.put("available", s.available());
+            } finally {
+                s.lock.unlock();
+            }
+            out.add(m);
+        }
+        return out;
+    }
+
+    // ✅ Hold the best N adjacent seats, optionally restricted to one section
+    public List<String> holdBestAvailable(UUID eventId, int quantity, String sectionName) {
+        if (quantity <= 0) throw new RuntimeException("Quantity must be positive");
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            List<SeatRef> refs = null;
+            Map<Section, Long> pending = null;
+            for (Section s : requireSections(eventId)) {
+                if (sectionName != null && !s.name.equalsIgnoreCase(sectionName)) continue;
+                if (quantity > s.seatsPerRow) continue;
+
+                s.lock.lock();
+                try {
+                    int[] spot = s.findBest(quantity);
+                    if (spot == null) continue;
+
+                    refs = new ArrayList<>(quantity);
+                    for (int i = 0; i < quantity; i++) refs.add(new SeatRef(s, spot[0], spot[1] + i));
+                    pending = flip(refs, true);
+                } finally {
+                    s.lock.unlock();
+                }
+                break;
+            }
+
+            if (refs == null) break;
+            if (pending != null && persist(eventId, pending)) {
+                return refs.stream().map(r -> r.section().seatId(r.row(), r.seat())).toList();
+            }
+        }
+        throw new RuntimeException("No " + quantity + " adjacent seats available for event ID: " + eventId);
+    }
+
+    // ✅ Hold specific seats, all or nothing
+    public List<String> holdSeats(UUID eventId, List<String> seatIds) {
+        return changeSeats(eventId, seatIds, true);
+    }
+
+    // ✅ Release held or sold seats
+    public List<String> releaseSeats(UUID eventId, List<String> seatIds) {
+        return changeSeats(eventId, seatIds, false);
+    }
+
+    // ✅ Seat IDs as the seat map spells them; unknown or repeated seats are refused
+    public List<String> normalizeSeatIds(UUID eventId, List<String> seatIds) {
+        if (seatIds == null || seatIds.isEmpty()) throw new RuntimeException("No seats given");
+        return parseAll(requireSections(eventId), seatIds).stream()
+                .map(r -> r.section().seatId(r.row(), r.seat()))
+                .toList();
+    }
+
+    // ✅ Remove the seat map of a deleted event
+    public void deleteSeatMap(UUID eventId) {
+        repo.deleteByEventId(eventId);
+        maps.remove(eventId);
+    }
+
+    private List<String> changeSeats(UUID eventId, List<String> seatIds, boolean take) {
+        if (seatIds == null || seatIds.isEmpty()) throw new RuntimeException("No seats given");
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            List<SeatRef> refs = parseAll(requireSections(eventId), seatIds);
+            TreeMap<Integer, Section> involved = involved(refs);
+
+            Map<Section, Long> pending;
+            // Lock sections in a fixed order so concurrent multi-section requests cannot deadlock
+            involved.values().forEach(s -> s.lock.lock());
+            try {
+                for (SeatRef r : refs) {
+                    if (r.section().isTaken(r.row(), r.seat()) == take) {
+                        throw new RuntimeException("Seat " + r.section().seatId(r.row(), r.seat())
+                                + (take ? " is not available" : " is not held"));
+                    }
+                }
+                pending = flip(refs, take);
+            } finally {
+                involved.descendingMap().values().forEach(s -> s.lock.unlock());
+            }
+
+            if (pending != null) {
+                if (persist(eventId, pending)) {
+                    return refs.stream().map(r -> r.section().seatId(r.row(), r.seat())).toList();
+                }
+                undoWritten(eventId, refs, pending, take);
+            }
+        }
+        throw new RuntimeException("Seat map for event ID " + eventId + " is busy, please retry");
+    }
+
+    /**
+     * Flips the given seats in memory; the caller holds the section locks. Returns the change
+     * number to wait for per section, or null when a section was retired and the caller should
+     * start over on a fresh copy.
+     */
+    private Map<Section, Long> flip(List<SeatRef> refs, boolean take) {
+        for (SeatRef r : refs) {
+            if (r.section().retired) return null;
+        }
+        refs.forEach(r -> r.section().set(r.row(), r.seat(), take));
+
+        Map<Section, Long> pending = new LinkedHashMap<>();
+        refs.forEach(r -> pending.computeIfAbsent(r.section(), s -> ++s.changes));
+        return pending;
+    }
+
+    /**
+     * Waits until the given changes are in the database, writing them (and any later changes of
+     * the same sections) if no other request has yet. Returns false when they were dropped
+     * because the section was changed elsewhere, so the caller can retry.
+     */
+    private boolean persist(UUID eventId, Map<Section, Long> pending) {
+        TreeMap<Integer, Section> involved = new TreeMap<>();
+        pending.keySet().forEach(s -> involved.put(s.order, s));
+
+        involved.values().forEach(s -> s.writeLock.lock());
+        try {
+            boolean durable = true;
+            for (Map.Entry<Section, Long> p : pending.entrySet()) {
+                if (p.getKey().written >= p.getValue()) continue;
+                if (p.getKey().retired) return false;
+                durable = false;
+            }
+            if (durable) return true;
+
+            // Snapshot under the memory lock, write without it
+            Map<Section, byte[]> writes = new LinkedHashMap<>();
+            Map<Section, Long> upTo = new LinkedHashMap<>();
+            for (Section s : involved.values()) {
+                s.lock.lock();
+                try {
+                    if (s.written < s.changes) {
+                        writes.put(s, toBytes(s.bits));
+                        upTo.put(s, s.changes);
+                    }
+                } finally {
+                    s.lock.unlock();
+                }
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (Map.Entry<Section, byte[]> w : writes.entrySet()) {
+                        if (repo.writeBits(w.getKey().id, w.getValue(), w.getKey().version) == 0) {
+                            throw new StaleSectionException();
+                        }
+                    }
+                });
+            } catch (StaleSectionException ex) {
+                retire(eventId, writes.keySet());
+                return false;
+            } catch (RuntimeException ex) {
+                retire(eventId, writes.keySet());
+                throw ex;
+            }
+
+            upTo.forEach((s, n) -> {
+                s.version++;
+                s.written = n;
+            });
+            return true;
+        } finally {
+            involved.descendingMap().values().forEach(s -> s.writeLock.unlock());
+        }
+    }
+
+    // Drops sections whose memory holds changes that were not written; the next request reloads
+    private void retire(UUID eventId, Iterable<Section> sections) {
+        for (Section s : sections) {
+            s.lock.lock();
+            try {
+                s.retired = true;
+            } finally {
+                s.lock.unlock();
+            }
+        }
+        maps.computeIfPresent(eventId, (id, list) -> list.stream().anyMatch(s -> s.retired) ? null : list);
+    }
+
+    // A multi-section change that is only partly written is undone before it is retried
+    private void undoWritten(UUID eventId, List<SeatRef> refs, Map<Section, Long> pending, boolean take) {
+        List<String> written = refs.stream()
+                .filter(r -> r.section().written >= pending.get(r.section()))
+                .map(r -> r.section().seatId(r.row(), r.seat()))
+                .toList();
+        if (!written.isEmpty()) changeSeats(eventId, written, !take);
+    }
+
+    private static TreeMap<Integer, Section> involved(List<SeatRef> refs) {
+        TreeMap<Integer, Section> involved = new TreeMap<>();
+        refs.forEach(r -> involved.put(r.section().order, r.section()));
+        return involved;
+    }
+
+    private static final class StaleSectionException extends RuntimeException {
+        StaleSectionException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private List<Section> sections(UUID eventId) {
+        return maps.computeIfAbsent(eventId, id -> {
+            List<SeatSection> rows = repo.findByEventIdOrderBySortOrder(id);
+            if (rows.isEmpty()) return null;
+            return rows.stream().map(Section::new).sorted(Comparator.comparingInt(s -> s.order)).toList();
+        });
+    }
+
+    private List<Section> requireSections(UUID eventId) {
+        List<Section> sections = sections(eventId);
+        if (sections == null) throw new RuntimeException("No seat map defined for event ID: " + eventId);
+        return sections;
+    }
+
+    // A seat listed twice (also as a-1-1 and A-1-1) would be counted twice by the caller
+    private static List<SeatRef> parseAll(List<Section> sections, List<String> seatIds) {
+        List<SeatRef> refs = new ArrayList<>(seatIds.size());
+        Set<SeatRef> seen = new HashSet<>();
+        for (String id : seatIds) {
+            SeatRef r = parse(sections, id);
+            if (!seen.add(r)) {
+                throw new RuntimeException("Seat " + r.section().seatId(r.row(), r.seat()) + " is listed more than once");
+            }
+            refs.add(r);
+        }
+        return refs;
+    }
+
+    private static SeatRef parse(List<Section> sections, String seatId) {
+        if (seatId == null) throw new RuntimeException("Invalid seat ID: null");
+        seatId = seatId.trim();
+        int seatDash = seatId.lastIndexOf('-');
+        int rowDash = seatDash > 0 ? seatId.lastIndexOf('-', seatDash - 1) : -1;
+        if (rowDash <= 0) throw new RuntimeException("Invalid seat ID: " + seatId);
+
+        String name = seatId.substring(0, rowDash);
+        int row, seat;
+        try {
+            row = Integer.parseInt(seatId.substring(rowDash + 1, seatDash)) - 1;
+            seat = Integer.parseInt(seatId.substring(seatDash + 1)) - 1;
+        } catch (NumberFormatException ex) {
+            throw new RuntimeException("Invalid seat ID: " + seatId);
+        }
+
+        for (Section s : sections) {
+            if (s.name.equalsIgnoreCase(name)) {
+                if (row < 0 || row >= s.rows || seat < 0 || seat >= s.seatsPerRow) {
+                    throw new RuntimeException("Seat does not exist: " + seatId);
+                }
+                return new SeatRef(s, row, seat);
+            }
+        }
+        throw new RuntimeException("Unknown section in seat ID: " + seatId);
+    }
+
+    private static long[] toLongs(byte[] bytes, int words) {
+        long[] out = new long[words];
+        if (bytes != null) ByteBuffer.wrap(bytes).asLongBuffer().get(out, 0, Math.min(words, bytes.length / Long.BYTES));
+        return out;
+    }
+
+    private static byte[] toBytes(long[] words) {
+        ByteBuffer buf = ByteBuffer.allocate(words.length * Long.BYTES);
+        buf.asLongBuffer().put(words);
+        return buf.array();
+    }
+}
@@ -0,0 +1,70 @@
+package com.ticketapp.event_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotEventCounterTest {
+
+    private static final int TOTAL = 1_000;
+
+    @Test
+    void concurrentReservesAndReleasesStayWithinTotal() throws Exception {
+        HotEventCounter counter = new HotEventCounter(UUID.randomUUID(), TOTAL, TOTAL / 2, 8);
+        AtomicInteger net = new AtomicInteger();
+        AtomicBoolean exceeded = new AtomicBoolean();
+        AtomicBoolean done = new AtomicBoolean();
+
+        ExecutorService pool = Executors.newFixedThreadPool(9);
+        pool.execute(() -> {
+            while (!done.get()) {
+                if (counter.remaining() > TOTAL) exceeded.set(true);
+            }
+        });
+        CountDownLatch workers = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 50_000; i++) {
+                    int n = 1 + random.nextInt(3);
+                    // Releases outnumber reservations, so duplicates keep hitting the bound
+                    if (random.nextInt(5) < 2) {
+                        if (counter.tryReserve(n)) net.addAndGet(n);
+                    } else if (counter.release(n)) {
+                        net.addAndGet(-n);
+                    }
+                }
+                workers.countDown();
+            });
+        }
+        assertTrue(workers.await(30, TimeUnit.SECONDS));
+        done.set(true);
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertFalse(exceeded.get());
+        assertEquals(TOTAL / 2 - net.get(), counter.remaining());
+        assertTrue(counter.remaining() <= TOTAL);
+        assertFalse(counter.release(TOTAL - (int) counter.remaining() + 1));
+    }
+
+    @Test
+    void releaseBeyondSoldIsRefused() {
+        HotEventCounter counter = new HotEventCounter(UUID.randomUUID(), TOTAL, TOTAL - 5, 4);
+        assertFalse(counter.release(6));
+        assertTrue(counter.release(5));
+        assertFalse(counter.release(1));
+        assertEquals(TOTAL, counter.remaining());
+    }
+}
@@ -0,0 +1,262 @@
+package com.ticketapp.event_service.service;
+
+import com.ticketapp.event_service.entity.Event;
+import com.ticketapp.event_service.repository.EventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Contention tests of hot event mode against an in-memory events row that behaves like the
+ * conditional UPDATEs of {@link EventRepository}.
+ */
+class HotEventInventoryTest {
+
+    private static final int TOTAL = 2_000;
+    private static final String OWNER = "test-instance";
+
+    // The events row, guarded by its own monitor like a row lock
+    private static final class Row {
+        int sold;
+        long flushSeq;
+        boolean hot;
+        String owner;
+        volatile boolean failWrites;
+        volatile boolean refuseWrites;
+
+        synchronized Event snapshot(UUID id) {
+            Event e = new Event("Hot", "", "", null, "CONCERT", "ACTIVE", TOTAL, 10.0);
+            e.setEventId(id);
+            e.setTicketsSold(sold);
+            e.setHotMode(hot);
+            e.setHotOwner(owner);
+            e.setHotFlushSeq(flushSeq);
+            return e;
+        }
+
+        synchronized int applyHotDelta(int delta, long seq) {
+            if (failWrites) throw new IllegalStateException("database unavailable");
+            if (refuseWrites) return 0;
+            if (flushSeq >= seq || sold + delta < 0 || sold + delta > TOTAL) return 0;
+            sold += delta;
+            flushSeq = seq;
+            return 1;
+        }
+
+        synchronized int setHot(boolean hot, String owner) {
+            this.hot = hot;
+            this.owner = owner;
+            return 1;
+        }
+
+        synchronized int sold() {
+            return sold;
+        }
+
+        synchronized void restore(int sold, long flushSeq) {
+            this.sold = sold;
+            this.flushSeq = flushSeq;
+        }
+
+        synchronized List<Event> hotOwnedBy(UUID id, String owner) {
+            return hot && owner.equals(this.owner) ? List.of(snapshot(id)) : List.of();
+        }
+    }
+
+    @TempDir
+    Path journalDir;
+
+    private final UUID eventId = UUID.randomUUID();
+    private final Row row = new Row();
+    private HotEventInventory inventory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        EventRepository repo = mock(EventRepository.class);
+        when(repo.findByIdForUpdate(eventId)).thenAnswer(inv -> Optional.of(row.snapshot(eventId)));
+        when(repo.findById(eventId)).thenAnswer(inv -> Optional.of(row.snapshot(eventId)));
+        when(repo.findHotFlushSeq(eventId)).thenAnswer(inv -> Optional.of(row.snapshot(eventId).getHotFlushSeq()));
+        when(repo.findMaxHotFlushSeq()).thenAnswer(inv -> row.snapshot(eventId).getHotFlushSeq());
+        when(repo.findByHotModeTrueAndHotOwner(anyString())).thenAnswer(inv -> row.hotOwnedBy(eventId, inv.getArgument(0)));
+        when(repo.enterHotMode(any(), anyString())).thenAnswer(inv -> row.setHot(true, inv.getArgument(1)));
+        when(repo.leaveHotMode(any())).thenAnswer(inv -> row.setHot(false, null));
+        when(repo.applyHotDelta(any(), anyInt(), anyLong()))
+                .thenAnswer(inv -> row.applyHotDelta(inv.getArgument(1), inv.getArgument(2)));
+
+        inventory = new HotEventInventory(repo, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(inventory, "stripeCount", 8);
+        ReflectionTestUtils.setField(inventory, "journalPath", journalDir.toString());
+        ReflectionTestUtils.setField(inventory, "fsync", false);
+        ReflectionTestUtils.setField(inventory, "instanceId", OWNER);
+        inventory.recover();
+    }
+
+    @Test
+    void concurrentReservationsWithFlushesNeverOversell() throws Exception {
+        inventory.enable(eventId);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicBoolean done = new AtomicBoolean();
+
+        ExecutorService pool = Executors.newFixedThreadPool(17);
+        pool.execute(() -> {
+            while (!done.get()) inventory.flush();
+        });
+        CountDownLatch buyers = new CountDownLatch(16);
+        for (int t = 0; t < 16; t++) {
+            pool.execute(() -> {
+                try {
+                    while (true) {
+                        inventory.apply(eventId, 1);
+                        accepted.incrementAndGet();
+                    }
+                } catch (RuntimeException soldOut) {
+                    buyers.countDown();
+                }
+            });
+        }
+        assertTrue(buyers.await(30, TimeUnit.SECONDS));
+        done.set(true);
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        inventory.disable(eventId);
+        assertEquals(TOTAL, accepted.get());
+        assertEquals(TOTAL, row.sold());
+        assertFalse(row.hot);
+    }
+
+    @Test
+    void disableDuringFlushesAndTrafficLosesNothing() throws Exception {
+        inventory.enable(eventId);
+        AtomicInteger net = new AtomicInteger();
+        AtomicBoolean done = new AtomicBoolean();
+
+        ExecutorService pool = Executors.newFixedThreadPool(10);
+        for (int f = 0; f < 2; f++) {
+            pool.execute(() -> {
+                while (!done.get()) inventory.flush();
+            });
+        }
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                while (!done.get()) {
+                    int delta = ThreadLocalRandom.current().nextInt(4) == 0 ? -1 : 1;
+                    try {
+                        if (inventory.apply(eventId, delta) == null) return; // back on the database path
+                        net.addAndGet(delta);
+                    } catch (RuntimeException rejected) {
+                        // sold out, nothing to release, or switching
+                    }
+                }
+            });
+        }
+
+        Thread.sleep(200);
+        inventory.disable(eventId);
+        done.set(true);
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertFalse(inventory.isHot(eventId));
+        assertFalse(row.hot);
+        assertEquals(net.get(), row.sold());
+    }
+
+    @Test
+    void refusedFlushIsKeptAndBlocksDisable() throws Exception {
+        inventory.enable(eventId);
+        for (int i = 0; i < 50; i++) inventory.apply(eventId, 1);
+
+        row.failWrites = true;
+        inventory.flush();
+        assertThrows(RuntimeException.class, () -> inventory.disable(eventId));
+        assertTrue(inventory.isHot(eventId));
+        assertTrue(row.hot);
+
+        // Accepted again after the failed disable, and nothing from before is lost
+        inventory.apply(eventId, 1);
+        row.failWrites = false;
+        inventory.disable(eventId);
+        assertEquals(51, row.sold());
+        assertFalse(row.hot);
+    }
+
+    @Test
+    void journaledDeltasSurviveRestart() throws Exception {
+        inventory.enable(eventId);
+        for (int i = 0; i < 25; i++) inventory.apply(eventId, 1);
+
+        // Crash before any flush: a new instance replays the journal into the row
+        setUp();
+        assertEquals(25, row.sold());
+        assertTrue(inventory.isHot(eventId));
+        assertEquals(25, inventory.ticketsSold(eventId));
+        assertEquals((long) TOTAL - 25, inventory.metrics(eventId).get("remaining"));
+    }
+
+    @Test
+    void restartRebuildsCounterFromRowMinusUnwrittenDeltas() throws Exception {
+        row.restore(100, 0);
+        inventory.enable(eventId);
+        for (int i = 0; i < 25; i++) inventory.apply(eventId, 1);
+
+        // The replay is refused, so the 25 stay journaled and must not be sold again
+        row.refuseWrites = true;
+        setUp();
+        assertEquals(100, row.sold());
+        assertTrue(inventory.isHot(eventId));
+        assertEquals(125, inventory.ticketsSold(eventId));
+        assertEquals((long) TOTAL - 100 - 25, inventory.metrics(eventId).get("remaining"));
+
+        row.refuseWrites = false;
+        inventory.disable(eventId);
+        assertEquals(125, row.sold());
+    }
+
+    @Test
+    void rowSequenceAheadOfClockDoesNotSwallowFlushes() throws Exception {
+        // Written by an instance whose clock ran ahead of this one
+        row.restore(0, System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1));
+        inventory.enable(eventId);
+        for (int i = 0; i < 10; i++) inventory.apply(eventId, 1);
+
+        inventory.flush();
+        assertEquals(10, row.sold());
+        inventory.disable(eventId);
+        assertEquals(10, row.sold());
+    }
+
+    @Test
+    void hotEventOfAnotherInstanceIsNotServedHere() {
+        row.setHot(true, "other-instance");
+        assertThrows(RuntimeException.class, () -> inventory.enable(eventId));
+        assertThrows(RuntimeException.class, () -> inventory.disable(eventId));
+        assertEquals(null, inventory.apply(eventId, 1));
+        assertEquals(0, row.sold());
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.UUID;
@@ -14,10 +15,11 @@ import java.util.UUID;
 )
 public interface BookingClient {
 
-    // ✅ Confirm booking after payment success
+    // ✅ Confirm booking after payment success (the key lets booking-service replay a retried call)
     @PutMapping("/bookings/{id}/confirm")
     void confirmBooking(@PathVariable("id") UUID bookingId,
-                        @RequestParam(required = false) String paymentId);
+                        @RequestParam(required = false) String paymentId,
+                        @RequestHeader("Idempotency-Key") String idempotencyKey);
 
     // ✅ Cancel booking if payment failed
     @PatchMapping("/bookings/{id}/cancel")
@@ -4,6 +4,7 @@ import com.ticketapp.payment_service.dto.PaymentConfirmRequest;
 import com.ticketapp.payment_service.dto.PaymentRequest;
 import com.ticketapp.payment_service.dto.PaymentResponse;
 import com.ticketapp.payment_service.entity.PaymentRecord;
+import com.ticketapp.payment_service.service.IdempotencyStore;
 import com.ticketapp.payment_service.service.PaymentService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,18 +20,27 @@ import java.util.UUID;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final IdempotencyStore idempotency;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, IdempotencyStore idempotency) {
         this.paymentService = paymentService;
+        this.idempotency = idempotency;
     }
 
     /**
      * ✅ Initiate a new UPI or coupon-based payment
      * - If a valid coupon code is entered → auto-success (no gateway call)
      * - Else → Creates UPI payment request via Razorpay / Simulated provider
+     * - A retry with the same Idempotency-Key returns the original payment instead of a new one
      */
     @PostMapping
-    public ResponseEntity<PaymentResponse> initiatePayment(@Valid @RequestBody PaymentRequest req) {
+    public ResponseEntity<PaymentResponse> initiatePayment(
+            @Valid @RequestBody PaymentRequest req,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotency.execute(idempotencyKey, "POST /payments", req, () -> initiate(req));
+    }
+
+    private ResponseEntity<PaymentResponse> initiate(PaymentRequest req) {
         PaymentRecord record = paymentService.initiatePayment(req);
 
         String message;
@@ -49,6 +59,18 @@ public class PaymentController {
         return ResponseEntity.created(URI.create("/payments/" + record.getId())).body(response);
     }
 
+    /**
+     * ✅ Instant payment for booking-service's checkout (no callback to booking-service)
+     */
+    @PostMapping("/instant")
+    public ResponseEntity<?> payInstant(@Valid @RequestBody PaymentRequest req) {
+        try {
+            return ResponseEntity.ok(paymentService.payInstant(req));
+        } catch (RuntimeException ex) {
+            return ResponseEntity.unprocessableEntity().body(ex.getMessage());
+        }
+    }
+
     /**
      * ✅ Simulate a provider callback manually (useful for dev/testing)
      */
@@ -69,8 +91,11 @@ public class PaymentController {
      * ✅ Payment provider webhook (Razorpay / Cashfree callback)
      */
     @PostMapping("/confirm")
-    public ResponseEntity<PaymentRecord> confirmPayment(@RequestBody PaymentConfirmRequest req) {
-        return ResponseEntity.ok(paymentService.handleProviderCallback(req));
+    public ResponseEntity<PaymentRecord> confirmPayment(
+            @RequestBody PaymentConfirmRequest req,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotency.execute(idempotencyKey, "POST /payments/confirm", req,
+                () -> ResponseEntity.ok(paymentService.handleProviderCallback(req)));
     }
 
     /**
@@ -91,6 +116,21 @@ public class PaymentController {
         return ResponseEntity.ok(paymentService.getByUserId(userId));
     }
 
+    /**
+     * ✅ Paged payment history: ?cursor=<nextCursor>&limit=20&status=SUCCESS
+     */
+    @GetMapping("/user/{userId}/history")
+    public ResponseEntity<?> getHistory(@PathVariable UUID userId,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "20") int limit,
+                                        @RequestParam(required = false) String status) {
+        try {
+            return ResponseEntity.ok(paymentService.getPaymentHistory(userId, cursor, limit, status));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
     /**
      * ✅ Retrieve all payments (admin/debug)
      */
@@ -0,0 +1,24 @@
+package com.ticketapp.payment_service.dto;
+
+import com.ticketapp.payment_service.entity.PaymentRecord;
+
+import java.util.List;
+
+// One page of a user's payments; pass nextCursor back to get the following page (null on the last one)
+public class PaymentPage {
+    private List<PaymentRecord> items;
+    private String nextCursor;
+
+    public PaymentPage() {
+    }
+
+    public PaymentPage(List<PaymentRecord> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<PaymentRecord> getItems() { return items; }
+    public void setItems(List<PaymentRecord> items) { this.items = items; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -5,16 +5,21 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_booking_id", columnList = "booking_id"),
+        // Payment history: newest first per user, optionally per status (keyset on created_at, id)
+        @Index(name = "idx_payments_user_created", columnList = "user_id, created_at DESC, id DESC"),
+        @Index(name = "idx_payments_user_status_created", columnList = "user_id, status, created_at DESC, id DESC")
+})
 public class PaymentRecord {
     @Id
     @GeneratedValue
     private UUID id;
 
-    @Column(nullable = false)
+    @Column(name = "booking_id", nullable = false)
     private UUID bookingId;
 
-    @Column(nullable = false)
+    @Column(name = "user_id", nullable = false)
     private UUID userId;
 
     @Column(nullable = false)
@@ -30,6 +35,7 @@ public class PaymentRecord {
     private String providerPaymentId;
     private String status; // PENDING, SUCCESS, FAILED
 
+    @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
     private LocalDateTime updatedAt = LocalDateTime.now();
 
@@ -0,0 +1,40 @@
+package com.ticketapp.payment_service.repository;
+
+import com.ticketapp.payment_service.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // 1 when the key was free and is now claimed, 0 when another request (on any instance) has it
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, fingerprint, claim, created_at) " +
+            "VALUES (:key, :fingerprint, :claim, :createdAt) ON CONFLICT (idempotency_key) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("key") String key, @Param("fingerprint") String fingerprint,
+                       @Param("claim") UUID claim, @Param("createdAt") LocalDateTime createdAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.responseStatus = :status, r.responseLocation = :location, " +
+            "r.responseBody = :body WHERE r.key = :key AND r.claim = :claim")
+    int complete(@Param("key") String key, @Param("claim") UUID claim, @Param("status") int status,
+                 @Param("location") String location, @Param("body") String body);
+
+    // Frees a key whose request failed, was abandoned or expired; a newer claim is left alone
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.claim = :claim")
+    int release(@Param("key") String key, @Param("claim") UUID claim);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,15 @@
+package com.ticketapp.payment_service.repository;
+
+import com.ticketapp.payment_service.entity.PaymentRecord;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// Keyset-paged payment history, newest first
+public interface PaymentHistoryRepository {
+
+    // Payments of the user older than (beforeCreatedAt, beforeId), or the newest when both are null
+    List<PaymentRecord> findHistoryPage(UUID userId, String status,
+                                        LocalDateTime beforeCreatedAt, UUID beforeId, int limit);
+}
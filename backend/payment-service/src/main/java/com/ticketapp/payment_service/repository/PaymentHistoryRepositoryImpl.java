@@ -0,0 +1,53 @@
+package com.ticketapp.payment_service.repository;
+
+import com.ticketapp.payment_service.entity.PaymentRecord;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// The status filter is only added when set, so the planner walks (user_id, created_at, id)
+// or (user_id, status, created_at, id) and stops after one page
+class PaymentHistoryRepositoryImpl implements PaymentHistoryRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<PaymentRecord> findHistoryPage(UUID userId, String status,
+                                               LocalDateTime beforeCreatedAt, UUID beforeId, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<PaymentRecord> q = cb.createQuery(PaymentRecord.class);
+        Root<PaymentRecord> p = q.from(PaymentRecord.class);
+
+        Path<LocalDateTime> createdAt = p.get("createdAt");
+        Path<UUID> id = p.get("id");
+
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.equal(p.get("userId"), userId));
+        if (status != null) where.add(cb.equal(p.get("status"), status));
+
+        // Keyset: (createdAt, id) < (beforeCreatedAt, beforeId)
+        if (beforeCreatedAt != null && beforeId != null) {
+            where.add(cb.or(
+                    cb.lessThan(createdAt, beforeCreatedAt),
+                    cb.and(cb.equal(createdAt, beforeCreatedAt), cb.lessThan(id, beforeId))));
+        }
+
+        q.select(p)
+                .where(where.toArray(new Predicate[0]))
+                .orderBy(cb.desc(createdAt), cb.desc(id));
+
+        return em.createQuery(q)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -7,7 +7,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface PaymentRepository extends JpaRepository<PaymentRecord, UUID> {
+public interface PaymentRepository extends JpaRepository<PaymentRecord, UUID>, PaymentHistoryRepository {
     Optional<PaymentRecord> findByBookingId(UUID bookingId);
-    List<PaymentRecord> findByUserId(UUID userId);
+    List<PaymentRecord> findByUserIdOrderByCreatedAtDescIdDesc(UUID userId);
 }
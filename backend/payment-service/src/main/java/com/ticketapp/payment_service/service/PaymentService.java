@@ -2,19 +2,27 @@ package com.ticketapp.payment_service.service;
 
 import com.ticketapp.payment_service.client.BookingClient;
 import com.ticketapp.payment_service.dto.PaymentConfirmRequest;
+import com.ticketapp.payment_service.dto.PaymentPage;
 import com.ticketapp.payment_service.dto.PaymentRequest;
 import com.ticketapp.payment_service.entity.PaymentRecord;
 import com.ticketapp.payment_service.repository.PaymentRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
 @Service
 public class PaymentService {
 
+    private static final int MAX_HISTORY_PAGE = 100;
+
     private final PaymentRepository paymentRepository;
     private final BookingClient bookingClient;
 
@@ -28,43 +36,22 @@ public class PaymentService {
      */
     @Transactional
     public PaymentRecord initiatePayment(PaymentRequest req) {
-        PaymentRecord payment = new PaymentRecord();
-        payment.setBookingId(req.getBookingId());
-        payment.setUserId(req.getUserId());
-        payment.setCurrency(req.getCurrency());
-        payment.setAmount(req.getAmount());
+        PaymentRecord payment = newPayment(req);
         payment.setStatus("PENDING");
-        payment.setUpiId(req.getUpiId());
-        payment.setCouponCode(req.getCouponCode());
 
         // 💡 Coupon code logic (instant success)
-        if (req.getCouponCode() != null) {
-            String code = req.getCouponCode().trim().toUpperCase();
-
-            switch (code) {
-                case "FREE100" -> {
-                    payment.setStatus("SUCCESS");
-                    payment.setProviderPaymentId("COUPON-FREE100");
-                }
-                case "DEVTEST" -> {
-                    payment.setStatus("SUCCESS");
-                    payment.setProviderPaymentId("COUPON-DEVTEST");
-                }
-                case "NEWUSER10" -> {
-                    // Apply 10% discount, still process payment
-                    double discount = req.getAmount() * 0.10;
-                    payment.setAmount(req.getAmount() - discount);
-                    payment.setStatus("PENDING");
-                }
-                default -> payment.setStatus("PENDING");
-            }
-
-            // If coupon makes payment instantly successful
-            if ("SUCCESS".equals(payment.getStatus())) {
-                paymentRepository.save(payment);
-                bookingClient.confirmBooking(payment.getBookingId(), payment.getProviderPaymentId());
-                return payment;
-            }
+        String instantPaymentId = instantPaymentId(req.getCouponCode());
+        if (instantPaymentId != null) {
+            payment.setStatus("SUCCESS");
+            payment.setProviderPaymentId(instantPaymentId);
+            paymentRepository.save(payment);
+            bookingClient.confirmBooking(payment.getBookingId(), payment.getProviderPaymentId(), confirmKey(payment));
+            return payment;
+        }
+        if (req.getCouponCode() != null && "NEWUSER10".equals(req.getCouponCode().trim().toUpperCase())) {
+            // Apply 10% discount, still process payment
+            double discount = req.getAmount() * 0.10;
+            payment.setAmount(req.getAmount() - discount);
         }
 
         // 🪙 Otherwise: initiate actual UPI / gateway flow (placeholder)
@@ -72,6 +59,43 @@ public class PaymentService {
         return payment;
     }
 
+    /**
+     * ✅ Charge a booking that can be paid instantly (FREE100 / DEVTEST coupons) without calling
+     * booking-service back: used by booking-service's one-shot checkout, which confirms itself.
+     */
+    @Transactional
+    public PaymentRecord payInstant(PaymentRequest req) {
+        String instantPaymentId = instantPaymentId(req.getCouponCode());
+        if (instantPaymentId == null) {
+            throw new RuntimeException("Coupon " + req.getCouponCode() + " does not complete a payment instantly");
+        }
+        PaymentRecord payment = newPayment(req);
+        payment.setStatus("SUCCESS");
+        payment.setProviderPaymentId(instantPaymentId);
+        return paymentRepository.save(payment);
+    }
+
+    // Coupons that pay the whole amount at once; returns the provider payment ID, null for other codes
+    private static String instantPaymentId(String couponCode) {
+        if (couponCode == null) return null;
+        String code = couponCode.trim().toUpperCase();
+        return switch (code) {
+            case "FREE100", "DEVTEST" -> "COUPON-" + code;
+            default -> null;
+        };
+    }
+
+    private static PaymentRecord newPayment(PaymentRequest req) {
+        PaymentRecord payment = new PaymentRecord();
+        payment.setBookingId(req.getBookingId());
+        payment.setUserId(req.getUserId());
+        payment.setCurrency(req.getCurrency());
+        payment.setAmount(req.getAmount());
+        payment.setUpiId(req.getUpiId());
+        payment.setCouponCode(req.getCouponCode());
+        return payment;
+    }
+
     public Optional<PaymentRecord> getByBookingId(UUID bookingId) {
         return paymentRepository.findByBookingId(bookingId);
     }
@@ -81,7 +105,36 @@ public class PaymentService {
     }
 
     public List<PaymentRecord> getByUserId(UUID userId) {
-        return paymentRepository.findByUserId(userId);
+        return paymentRepository.findByUserIdOrderByCreatedAtDescIdDesc(userId);
+    }
+
+    /**
+     * ✅ Payment history, newest first, one keyset page at a time
+     */
+    public PaymentPage getPaymentHistory(UUID userId, String cursor, int limit, String status) {
+        int size = Math.min(Math.max(limit, 1), MAX_HISTORY_PAGE);
+        LocalDateTime beforeCreatedAt = null;
+        UUID beforeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sep = key.indexOf('|');
+                beforeCreatedAt = LocalDateTime.parse(key.substring(0, sep));
+                beforeId = UUID.fromString(key.substring(sep + 1));
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Invalid history cursor");
+            }
+        }
+
+        // One extra row tells us whether there is a next page
+        List<PaymentRecord> rows = paymentRepository.findHistoryPage(userId, status, beforeCreatedAt, beforeId, size + 1);
+        if (rows.size() <= size) {
+            return new PaymentPage(rows, null);
+        }
+        List<PaymentRecord> items = new ArrayList<>(rows.subList(0, size));
+        PaymentRecord last = items.get(size - 1);
+        String key = last.getCreatedAt() + "|" + last.getId();
+        return new PaymentPage(items, Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8)));
     }
 
     public List<PaymentRecord> getAllPayments() {
@@ -93,17 +146,28 @@ public class PaymentService {
         PaymentRecord record = paymentRepository.findById(req.getPaymentRecordId())
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
 
+        // Providers redeliver callbacks: one already applied is acknowledged without side effects
+        if ("SUCCESS".equalsIgnoreCase(record.getStatus())
+                && Objects.equals(record.getProviderPaymentId(), req.getProviderPaymentId())) {
+            return record;
+        }
+
         record.setProviderPaymentId(req.getProviderPaymentId());
         record.setStatus(req.getStatus());
         paymentRepository.save(record);
 
         if ("SUCCESS".equalsIgnoreCase(req.getStatus())) {
             try {
-                bookingClient.confirmBooking(record.getBookingId(), req.getProviderPaymentId());
+                bookingClient.confirmBooking(record.getBookingId(), req.getProviderPaymentId(), confirmKey(record));
             } catch (Exception ex) {
                 System.err.println("⚠ Failed to notify Booking Service: " + ex.getMessage());
             }
         }
         return record;
     }
+
+    // One booking confirmation per payment, however often it is sent
+    private static String confirmKey(PaymentRecord payment) {
+        return "payment-" + payment.getId();
+    }
 }
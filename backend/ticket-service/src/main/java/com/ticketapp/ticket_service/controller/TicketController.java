@@ -1,56 +1,237 @@
 package com.ticketapp.ticket_service.controller;
 
-import com.ticketapp.ticket_service.entity.TicketRecord;
+import com.ticketapp.ticket_service.entity.TicketJob;
+import com.ticketapp.ticket_service.entity.TicketJobStatus;
+import com.ticketapp.ticket_service.entity.TicketTemplate;
+import com.ticketapp.ticket_service.exception.BookingUnavailableException;
+import com.ticketapp.ticket_service.exception.TicketRenderException;
+import com.ticketapp.ticket_service.service.TicketDownloads;
+import com.ticketapp.ticket_service.service.TicketPipeline;
 import com.ticketapp.ticket_service.service.TicketService;
+import com.ticketapp.ticket_service.service.TicketTemplateService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.io.IOException;
-import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/tickets")
 public class TicketController {
 
     private final TicketService ticketService;
+    private final TicketPipeline ticketPipeline;
+    private final TicketTemplateService templateService;
+    private final TicketDownloads ticketDownloads;
 
-    public TicketController(TicketService ticketService) {
+    public TicketController(TicketService ticketService, TicketPipeline ticketPipeline,
+                            TicketTemplateService templateService, TicketDownloads ticketDownloads) {
         this.ticketService = ticketService;
+        this.ticketPipeline = ticketPipeline;
+        this.templateService = templateService;
+        this.ticketDownloads = ticketDownloads;
     }
 
-    // ✅ Generate ticket using only bookingId
+    // ✅ Queue ticket generation from the booking snapshot signed by booking-service (a body with
+    // only bookingId is checked with booking-service). 202 while the ticket is being made, 200 once
+    // it exists, 422 when the snapshot doesn't check out or the booking isn't confirmed, 503 when
+    // the queue is full (send again after Retry-After)
     @PostMapping("/generate")
-    public ResponseEntity<?> generate(@RequestBody Map<String, String> body) {
+    public ResponseEntity<?> generate(@RequestBody Map<String, Object> body) {
+        UUID bookingId;
         try {
-            UUID bookingId = UUID.fromString(body.get("bookingId"));
-            TicketRecord rec = ticketService.generateTicket(bookingId);
-            return ResponseEntity.ok(rec);
+            bookingId = UUID.fromString(String.valueOf(body.get("bookingId")));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("bookingId is required");
+        }
+        try {
+            TicketJob job = ticketPipeline.submit(bookingId, body);
+            return ResponseEntity.status(job.getStatus() == TicketJobStatus.DONE ? 200 : 202).body(jobStatus(job));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "5")
+                    .body("Ticket queue is full, try again later");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.unprocessableEntity().body(e.getMessage());
         } catch (Exception e) {
-            return ResponseEntity.status(500).body("❌ Failed to generate ticket: " + e.getMessage());
+            return ResponseEntity.status(500).body("❌ Failed to queue ticket: " + e.getMessage());
         }
     }
 
-    // Download ticket
-    @GetMapping("/download/{bookingId}")
-    public ResponseEntity<?> download(@PathVariable UUID bookingId) {
-        Optional<TicketRecord> opt = ticketService.findByBookingId(bookingId);
-        if (opt.isEmpty()) return ResponseEntity.notFound().build();
+    // ✅ Where ticket generation for a booking stands (QUEUED, RUNNING, RETRY, DONE or DEAD)
+    @GetMapping("/status/{bookingId}")
+    public ResponseEntity<?> status(@PathVariable UUID bookingId) {
+        Optional<TicketJob> job = ticketPipeline.status(bookingId);
+        if (job.isPresent()) return ResponseEntity.ok(jobStatus(job.get()));
+        // Tickets made before jobs were recorded
+        if (ticketService.findByBookingId(bookingId).isPresent()) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("bookingId", bookingId);
+            m.put("status", TicketJobStatus.DONE);
+            m.put("ticketUrl", "/tickets/download/" + bookingId);
+            return ResponseEntity.ok(m);
+        }
+        return ResponseEntity.notFound().build();
+    }
 
-        TicketRecord rec = opt.get();
+    // ✅ Admin: dead letters, retrying one, and pool usage
+    @GetMapping("/jobs/dead")
+    public ResponseEntity<List<TicketJob>> deadJobs(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(ticketPipeline.deadJobs(limit));
+    }
+
+    @PostMapping("/jobs/{bookingId}/retry")
+    public ResponseEntity<?> retry(@PathVariable UUID bookingId) {
         try {
-            byte[] data = ticketService.getTicketPdfData(rec.getTicketPdfPath());
-            Path p = Path.of(rec.getTicketPdfPath());
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + p.getFileName() + "\"")
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .body(data);
+            return ResponseEntity.accepted().body(jobStatus(ticketPipeline.retry(bookingId)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/jobs/stats")
+    public ResponseEntity<Map<String, Object>> pipelineStats() {
+        return ResponseEntity.ok(ticketPipeline.stats());
+    }
+
+    // ✅ Admin: ticket branding, per event or the default for all events (title, colours as
+    // #RRGGBB, footer and brand text; unset fields keep the built-in look)
+    @GetMapping("/templates/default")
+    public ResponseEntity<?> defaultTemplate() {
+        return ResponseEntity.of(templateService.find(null));
+    }
+
+    @PutMapping("/templates/default")
+    public ResponseEntity<?> saveDefaultTemplate(@RequestBody TicketTemplate template) {
+        return saveTemplate(null, template);
+    }
+
+    @GetMapping("/templates/{eventId}")
+    public ResponseEntity<?> eventTemplate(@PathVariable UUID eventId) {
+        return ResponseEntity.of(templateService.find(eventId));
+    }
+
+    @PutMapping("/templates/{eventId}")
+    public ResponseEntity<?> saveEventTemplate(@PathVariable UUID eventId, @RequestBody TicketTemplate template) {
+        return saveTemplate(eventId, template);
+    }
+
+    @DeleteMapping("/templates/{eventId}")
+    public ResponseEntity<Void> deleteEventTemplate(@PathVariable UUID eventId) {
+        templateService.delete(eventId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<?> saveTemplate(UUID eventId, TicketTemplate template) {
+        try {
+            return ResponseEntity.ok(templateService.save(eventId, template));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // ✅ Download ticket: streamed (or served from the hot cache), revalidated with ETag /
+    // If-None-Match, and a single byte range may be requested (Range, If-Range). 503 when the
+    // ticket can't be rendered right now; render failures are retried by the pipeline
+    @GetMapping("/download/{bookingId}")
+    public void download(@PathVariable UUID bookingId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<TicketDownloads.Ticket> opt;
+        try {
+            opt = ticketDownloads.find(bookingId);
+        } catch (BookingUnavailableException e) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "10");
+            response.sendError(503, "Ticket details are not available right now");
+            return;
+        } catch (TicketRenderException e) {
+            ticketPipeline.renderFailed(bookingId, e);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "10");
+            response.sendError(503, "Ticket is being prepared, try again shortly");
+            return;
         } catch (IOException e) {
-            return ResponseEntity.status(500).body("Failed to read ticket file: " + e.getMessage());
+            response.sendError(500, "Failed to read ticket file: " + e.getMessage());
+            return;
         }
+        if (opt.isEmpty()) {
+            response.setStatus(404);
+            return;
+        }
+
+        TicketDownloads.Ticket ticket = opt.get();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=3600");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Sets ETag, and answers 304 when If-None-Match matches
+        if (new ServletWebRequest(request, response).checkNotModified(ticket.etag())) return;
+        response.setHeader(HttpHeaders.ETAG, ticket.etag());
+
+        long start = 0;
+        long length = ticket.size();
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(ticket.etag()))) {
+            long[] bytes = parseRange(range, ticket.size());
+            if (bytes != null && bytes.length == 0) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + ticket.size());
+                response.setStatus(416);
+                return;
+            }
+            if (bytes != null) {
+                start = bytes[0];
+                length = bytes[1] - bytes[0] + 1;
+                response.setStatus(206);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + bytes[0] + "-" + bytes[1] + "/" + ticket.size());
+            }
+        }
+
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + ticket.fileName() + "\"");
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod())) return;
+        ticketDownloads.transfer(ticket, start, length, request, response);
+    }
+
+    // {first, last} of a single "bytes=" range; empty when it can't be satisfied, null when the
+    // header should be ignored (malformed, or several ranges: those get the whole file)
+    private static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) return null;
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) return null;
+        try {
+            long first;
+            long last;
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0) return new long[0];
+                first = Math.max(0, size - suffix);
+                last = size - 1;
+            } else {
+                first = Long.parseLong(spec.substring(0, dash));
+                last = dash == spec.length() - 1 ? size - 1 : Math.min(Long.parseLong(spec.substring(dash + 1)), size - 1);
+                if (last < first && first < size) return null;
+            }
+            return first >= size ? new long[0] : new long[]{first, last};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, Object> jobStatus(TicketJob job) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("bookingId", job.getBookingId());
+        m.put("status", job.getStatus());
+        m.put("attempts", job.getAttempts());
+        if (job.getLastError() != null) m.put("lastError", job.getLastError());
+        if (job.getStatus() == TicketJobStatus.RETRY) m.put("nextAttemptAt", job.getNextAttemptAt());
+        if (job.getStatus() == TicketJobStatus.DONE) m.put("ticketUrl", "/tickets/download/" + job.getBookingId());
+        return m;
     }
 }
@@ -0,0 +1,141 @@
+package com.ticketapp.ticket_service.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Ticket generation request for one booking. Kept after the ticket is written so the status can be
+// polled; jobs that ran out of attempts stay DEAD until retried by hand.
+@Entity
+@Table(name = "ticket_jobs", indexes = {
+        @Index(name = "idx_ticket_jobs_status_next_attempt", columnList = "status, next_attempt_at")
+})
+public class TicketJob {
+    @Id
+    private UUID bookingId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private TicketJobStatus status;
+
+    private int attempts;
+
+    // A download couldn't render the ticket: the worker renders it too, so that failure is retried
+    // and dead-lettered like a failed generation
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private boolean renderPdf;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    // Signed booking snapshot the request came with, already checked (JSON); null for jobs of
+    // requests without one, which read the booking from booking-service
+    @Column(columnDefinition = "text")
+    private String snapshot;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    // Bumped by every claim and save: a worker whose job was claimed again (it looked stale) can't
+    // overwrite the other worker's result
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null) createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) nextAttemptAt = createdAt;
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public UUID getBookingId() {
+        return bookingId;
+    }
+
+    public void setBookingId(UUID bookingId) {
+        this.bookingId = bookingId;
+    }
+
+    public TicketJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TicketJobStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public boolean isRenderPdf() {
+        return renderPdf;
+    }
+
+    public void setRenderPdf(boolean renderPdf) {
+        this.renderPdf = renderPdf;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(String snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
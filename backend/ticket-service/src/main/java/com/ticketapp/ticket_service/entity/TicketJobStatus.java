@@ -0,0 +1,9 @@
+package com.ticketapp.ticket_service.entity;
+
+public enum TicketJobStatus {
+    QUEUED,
+    RUNNING,
+    RETRY,
+    DONE,
+    DEAD
+}
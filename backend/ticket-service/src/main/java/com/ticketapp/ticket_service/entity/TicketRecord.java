@@ -20,14 +20,29 @@ public class TicketRecord {
     @Column(nullable = false)
     private UUID eventId;
 
-    // store file path as normal string (no LOB)
-    @Column(nullable = false, length = 512)
+    // store file path as normal string (no LOB); null until the PDF is written (lazy mode renders on download)
+    @Column(length = 512)
     private String ticketPdfPath;
 
     // ensure Hibernate maps as VARCHAR instead of CLOB
     @Column(length = 2000, columnDefinition = "TEXT")
     private String qrText;
 
+    // assigned seats copied from the booking, comma separated (null for general admission)
+    @Column(length = 2000)
+    private String seatIds;
+
+    // Booking values printed on the ticket, copied when it is issued so the PDF doesn't change with
+    // the booking afterwards (null on tickets issued before they were stored)
+    private Integer quantity;
+    private Double amount;
+
+    @Column(length = 100)
+    private String paymentId;
+
+    @Column(length = 32)
+    private String bookingStatus;
+
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
@@ -49,6 +64,16 @@ public class TicketRecord {
     public void setTicketPdfPath(String ticketPdfPath) { this.ticketPdfPath = ticketPdfPath; }
     public String getQrText() { return qrText; }
     public void setQrText(String qrText) { this.qrText = qrText; }
+    public String getSeatIds() { return seatIds; }
+    public void setSeatIds(String seatIds) { this.seatIds = seatIds; }
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    public Double getAmount() { return amount; }
+    public void setAmount(Double amount) { this.amount = amount; }
+    public String getPaymentId() { return paymentId; }
+    public void setPaymentId(String paymentId) { this.paymentId = paymentId; }
+    public String getBookingStatus() { return bookingStatus; }
+    public void setBookingStatus(String bookingStatus) { this.bookingStatus = bookingStatus; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
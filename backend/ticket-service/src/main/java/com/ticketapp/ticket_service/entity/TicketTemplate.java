@@ -0,0 +1,130 @@
+package com.ticketapp.ticket_service.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Branding of the ticket PDF for one event; the row without an eventId is the default for all
+// other events. Colours are hex (#2196F3). version changes on every update, so compiled copies
+// of the previous layout are not reused.
+@Entity
+@Table(name = "ticket_templates", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_ticket_templates_event", columnNames = "event_id")
+})
+public class TicketTemplate {
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(name = "event_id")
+    private UUID eventId;
+
+    @Column(length = 60)
+    private String title;
+
+    @Column(length = 7)
+    private String headerColor;
+
+    @Column(length = 7)
+    private String backgroundColor;
+
+    @Column(length = 7)
+    private String accentColor;
+
+    @Column(length = 120)
+    private String footerText;
+
+    @Column(length = 60)
+    private String brandText;
+
+    @Version
+    private int version;
+
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    public void touch() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(UUID eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getHeaderColor() {
+        return headerColor;
+    }
+
+    public void setHeaderColor(String headerColor) {
+        this.headerColor = headerColor;
+    }
+
+    public String getBackgroundColor() {
+        return backgroundColor;
+    }
+
+    public void setBackgroundColor(String backgroundColor) {
+        this.backgroundColor = backgroundColor;
+    }
+
+    public String getAccentColor() {
+        return accentColor;
+    }
+
+    public void setAccentColor(String accentColor) {
+        this.accentColor = accentColor;
+    }
+
+    public String getFooterText() {
+        return footerText;
+    }
+
+    public void setFooterText(String footerText) {
+        this.footerText = footerText;
+    }
+
+    public String getBrandText() {
+        return brandText;
+    }
+
+    public void setBrandText(String brandText) {
+        this.brandText = brandText;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,8 @@
+package com.ticketapp.ticket_service.exception;
+
+// booking-service couldn't be asked for a booking; trying again later may work
+public class BookingUnavailableException extends RuntimeException {
+    public BookingUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,8 @@
+package com.ticketapp.ticket_service.exception;
+
+// A ticket PDF couldn't be drawn (template, QR code or PDF error)
+public class TicketRenderException extends RuntimeException {
+    public TicketRenderException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,38 @@
+package com.ticketapp.ticket_service.repository;
+
+import com.ticketapp.ticket_service.entity.TicketJob;
+import com.ticketapp.ticket_service.entity.TicketJobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface TicketJobRepository extends JpaRepository<TicketJob, UUID> {
+
+    // Jobs waiting for a worker, plus RUNNING jobs whose worker went away (instance crashed)
+    @Query("SELECT j.bookingId FROM TicketJob j WHERE " +
+            "(j.status IN (com.ticketapp.ticket_service.entity.TicketJobStatus.QUEUED, " +
+            "com.ticketapp.ticket_service.entity.TicketJobStatus.RETRY) AND j.nextAttemptAt <= :now) " +
+            "OR (j.status = com.ticketapp.ticket_service.entity.TicketJobStatus.RUNNING AND j.updatedAt < :staleBefore) " +
+            "ORDER BY j.nextAttemptAt")
+    List<UUID> findDue(@Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore, Pageable pageable);
+
+    List<TicketJob> findByStatusOrderByUpdatedAtDesc(TicketJobStatus status, Pageable pageable);
+
+    // ✅ Conditional UPDATE: exactly one worker (on any instance) gets to run a job. The version bump
+    // makes the result of an earlier claim of the same job fail to save
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE TicketJob j SET j.status = com.ticketapp.ticket_service.entity.TicketJobStatus.RUNNING, " +
+            "j.updatedAt = :now, j.version = j.version + 1 WHERE j.bookingId = :id AND (" +
+            "j.status IN (com.ticketapp.ticket_service.entity.TicketJobStatus.QUEUED, " +
+            "com.ticketapp.ticket_service.entity.TicketJobStatus.RETRY) " +
+            "OR (j.status = com.ticketapp.ticket_service.entity.TicketJobStatus.RUNNING AND j.updatedAt < :staleBefore))")
+    int claim(@Param("id") UUID bookingId, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+}
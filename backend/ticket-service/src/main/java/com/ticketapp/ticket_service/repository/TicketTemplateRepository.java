@@ -0,0 +1,13 @@
+package com.ticketapp.ticket_service.repository;
+
+import com.ticketapp.ticket_service.entity.TicketTemplate;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface TicketTemplateRepository extends JpaRepository<TicketTemplate, UUID> {
+    Optional<TicketTemplate> findByEventId(UUID eventId);
+
+    Optional<TicketTemplate> findByEventIdIsNull();
+}
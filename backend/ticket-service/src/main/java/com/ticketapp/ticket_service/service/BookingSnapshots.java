@@ -0,0 +1,110 @@
+package com.ticketapp.ticket_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Checks the signed booking snapshots booking-service sends with a ticket request (its
+ * BookingSnapshots has the same FIELDS and canonical form). A snapshot with a valid HMAC is what
+ * the booking looked like when it was confirmed, so the ticket is issued from it without asking
+ * booking-service. The key (tickets.snapshot-secret) is shared by the two services.
+ */
+@Component
+public class BookingSnapshots {
+
+    private static final String HMAC = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+
+    static final List<String> FIELDS = List.of(
+            "bookingId", "userId", "eventId", "ticketType", "quantity", "seatIds", "amount", "paymentId", "status");
+
+    private final ThreadLocal<Mac> macs;
+    private final ObjectMapper objectMapper;
+
+    public BookingSnapshots(@Value("${tickets.snapshot-secret:}") String secret, ObjectMapper objectMapper) {
+        if (secret.getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("tickets.snapshot-secret (TICKET_SNAPSHOT_SECRET) must be set to a random value of at least "
+                    + MIN_SECRET_BYTES + " bytes");
+        }
+        this.objectMapper = objectMapper;
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(HMAC);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException("HMAC not available", ex);
+            }
+        });
+    }
+
+    /**
+     * The snapshot in a ticket request body, or null when the body carries none (requests queued
+     * by booking-service before it sent snapshots). Throws IllegalArgumentException for a forged
+     * or altered snapshot, one for another booking, or a booking that wasn't confirmed.
+     */
+    public Map<String, Object> verify(UUID bookingId, Map<String, Object> body) {
+        Object signature = body.get("signature");
+        if (signature == null) return null;
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        StringBuilder canonical = new StringBuilder();
+        for (String field : FIELDS) {
+            Object value = body.get(field);
+            if (value != null) snapshot.put(field, value.toString());
+            canonical.append(Objects.toString(value, "")).append('\n');
+        }
+        byte[] expected = macs.get().doFinal(canonical.toString().getBytes(StandardCharsets.UTF_8));
+        byte[] given;
+        try {
+            given = Base64.getUrlDecoder().decode(signature.toString());
+        } catch (IllegalArgumentException ex) {
+            given = new byte[0];
+        }
+        if (!MessageDigest.isEqual(expected, given)) {
+            throw new IllegalArgumentException("Booking snapshot for " + bookingId + " has an invalid signature");
+        }
+        if (!bookingId.toString().equals(snapshot.get("bookingId"))) {
+            throw new IllegalArgumentException("Booking snapshot is for booking " + snapshot.get("bookingId")
+                    + ", not " + bookingId);
+        }
+        if (!"CONFIRMED".equals(snapshot.get("status"))) {
+            throw new IllegalArgumentException("Booking " + bookingId + " is " + snapshot.get("status")
+                    + ", tickets are issued for confirmed bookings only");
+        }
+        return snapshot;
+    }
+
+    // A checked snapshot as stored with its job, and back
+    String write(Map<String, Object> snapshot) {
+        try {
+            return objectMapper.writeValueAsString(snapshot);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to write booking snapshot", ex);
+        }
+    }
+
+    Map<String, Object> read(String json) {
+        try {
+            return objectMapper.readValue(json, new TypeReference<Map<String, Object>>() { });
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unreadable booking snapshot", ex);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.ticketapp.ticket_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.zxing.WriterException;
+import com.ticketapp.ticket_service.entity.TicketRecord;
+import com.ticketapp.ticket_service.exception.BookingUnavailableException;
+import com.ticketapp.ticket_service.exception.TicketRenderException;
+import com.ticketapp.ticket_service.repository.TicketRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Serves ticket PDFs.
+ *
+ * Small PDFs that were generated or downloaded lately are kept in a hot cache bounded by total bytes
+ * ({@code ticket.download.cache-max-bytes}), so the rush of downloads at the gate is answered from
+ * memory without touching the database or the disk. Larger files are streamed: through Tomcat's
+ * sendfile when the connector offers it, else by FileChannel transfer, never by reading the whole
+ * file into the heap per request. A ticket without a file here (lazy mode, or written by another
+ * instance) is rendered from its record on first download, once even for concurrent requests,
+ * and optionally written to disk ({@code ticket.files.persist-rendered}). A ticket that can't be
+ * rendered is neither cached nor written: the caller gets {@link BookingUnavailableException}
+ * when an old ticket's booking values can't be fetched, or {@link TicketRenderException}.
+ */
+@Service
+public class TicketDownloads {
+
+    private static final Logger log = LoggerFactory.getLogger(TicketDownloads.class);
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /** A ticket PDF; data holds it when it is in the hot cache (path may then be null), null when it is read from disk. */
+    public record Ticket(Path path, String fileName, long size, String etag, byte[] data) { }
+
+    private final TicketRepository ticketRepository;
+    private final TicketRenderer ticketRenderer;
+    private final Cache<UUID, Ticket> hot;
+    private final long maxEntryBytes;
+
+    @Value("${ticket.files.persist-rendered:false}")
+    private boolean persistRendered;
+
+    public TicketDownloads(TicketRepository ticketRepository, TicketRenderer ticketRenderer,
+                           @Value("${ticket.download.cache-max-bytes:67108864}") long maxBytes,
+                           @Value("${ticket.download.cache-max-entry-bytes:262144}") long maxEntryBytes,
+                           @Value("${ticket.download.cache-ttl-minutes:60}") long ttlMinutes) {
+        this.ticketRepository = ticketRepository;
+        this.ticketRenderer = ticketRenderer;
+        this.maxEntryBytes = maxEntryBytes;
+        this.hot = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((UUID id, Ticket t) -> t.data().length)
+                .expireAfterAccess(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    // ✅ Ticket of a booking, from the hot cache or the disk (empty if no ticket was made)
+    public Optional<Ticket> find(UUID bookingId) throws IOException {
+        Ticket cached = hot.getIfPresent(bookingId);
+        if (cached != null) return Optional.of(cached);
+
+        Optional<TicketRecord> rec = ticketRepository.findByBookingId(bookingId);
+        if (rec.isEmpty()) return Optional.empty();
+        String stored = rec.get().getTicketPdfPath();
+        Path path = stored == null ? null : Path.of(stored.replace("\\", "/"));
+
+        if (path != null && Files.exists(path)) {
+            long size = Files.size(path);
+            if (size > maxEntryBytes) {
+                BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                return Optional.of(new Ticket(path, fileName(bookingId), size, etag(attrs), null));
+            }
+            return Optional.of(cache(bookingId, Files.readAllBytes(path)));
+        }
+
+        // Not rendered yet, or the file is on another instance; a failure leaves nothing cached
+        return Optional.of(hot.get(bookingId, id -> render(rec.get())));
+    }
+
+    // ✅ Render a ticket ahead of its downloads (the pipeline, after a download failed to render it)
+    public void warm(TicketRecord rec) {
+        Ticket ticket = render(rec);
+        if (ticket.size() <= maxEntryBytes) hot.put(rec.getBookingId(), ticket);
+    }
+
+    // ✅ Freshly written ticket: keep it for the downloads that usually follow right away
+    public void put(UUID bookingId, byte[] pdf) {
+        if (pdf.length <= maxEntryBytes) cache(bookingId, pdf);
+    }
+
+    public void evict(UUID bookingId) {
+        hot.invalidate(bookingId);
+    }
+
+    // ✅ Write bytes [start, start + length) of the ticket as the response body
+    public void transfer(Ticket ticket, long start, long length,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (ticket.data() != null) {
+            response.getOutputStream().write(ticket.data(), (int) start, (int) length);
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat sends the file itself once the request returns (kernel copy, no user-space buffer)
+            request.setAttribute(SENDFILE_FILENAME, ticket.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(ticket.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) break;
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    private Ticket cache(UUID bookingId, byte[] pdf) {
+        Ticket ticket = new Ticket(null, fileName(bookingId), pdf.length, etag(pdf), pdf);
+        hot.put(bookingId, ticket);
+        return ticket;
+    }
+
+    private Ticket render(TicketRecord rec) {
+        if (rec.getBookingStatus() == null) {
+            // Issued before booking values were stored: fetch them once and keep them with the ticket
+            TicketRenderer.copyBookingValues(rec, ticketRenderer.bookingDetails(rec.getBookingId()));
+            rec = ticketRepository.save(rec);
+        }
+        byte[] pdf;
+        try {
+            pdf = ticketRenderer.render(rec);
+        } catch (IOException | WriterException | RuntimeException e) {
+            throw new TicketRenderException("Ticket " + rec.getBookingId() + " could not be rendered: " + e.getMessage(), e);
+        }
+        if (persistRendered) {
+            try {
+                rec.setTicketPdfPath(ticketRenderer.store(rec.getBookingId(), pdf).toString());
+                ticketRepository.save(rec);
+            } catch (Exception e) {
+                // Still served; the next instance without the file renders it again
+                log.warn("Rendered ticket {} not written to disk: {}", rec.getBookingId(), e.getMessage());
+            }
+        }
+        return new Ticket(null, fileName(rec.getBookingId()), pdf.length, etag(pdf), pdf);
+    }
+
+    private static String fileName(UUID bookingId) {
+        return "ticket_" + bookingId + ".pdf";
+    }
+
+    // From the content for cached PDFs: a ticket rendered again (here or on another instance) gets
+    // the same ETag, and a new one once its event's template changes
+    private static String etag(byte[] pdf) {
+        CRC32 crc = new CRC32();
+        crc.update(pdf);
+        return "\"" + Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(pdf.length) + "\"";
+    }
+
+    // Large files are written once, so size and modification time identify the content
+    private static String etag(BasicFileAttributes attrs) {
+        return "\"" + Long.toHexString(attrs.size()) + "-" + Long.toHexString(attrs.lastModifiedTime().toMillis()) + "\"";
+    }
+}
@@ -0,0 +1,290 @@
+package com.ticketapp.ticket_service.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.ticketapp.ticket_service.entity.TicketTemplate;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+
+import java.awt.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Ticket PDF layout, compiled once per template version.
+ *
+ * Everything that is the same on every ticket (background, header, field labels, footer) is drawn
+ * once into a content stream whose compressed bytes are kept. A ticket is a new page that reuses
+ * those bytes as-is plus a second, small stream with the booking values, the QR code and the
+ * generation time. Only the standard 14 fonts are used, so the font resources can be shared
+ * between documents. Instances are immutable and safe to use from several threads.
+ */
+public final class TicketPdfTemplate {
+
+    /**
+     * How the QR code goes into the PDF. VECTOR fills the dark modules as rectangles straight from
+     * the {@link BitMatrix} (no raster, scales cleanly); IMAGE embeds a 220px lossless bitmap, the
+     * way tickets were made before.
+     */
+    public enum QrMode { VECTOR, IMAGE }
+
+    private static final int QR_IMAGE_PIXELS = 220;
+
+    private static final String DEFAULT_TITLE = " Ticket Confirmation";
+    private static final String DEFAULT_FOOTER = "Please present this ticket at event entry.";
+    private static final String DEFAULT_BRAND = "Powered by TicketApp";
+    private static final Color DEFAULT_HEADER = new Color(33, 150, 243);
+    private static final Color DEFAULT_BACKGROUND = new Color(250, 250, 250);
+
+    private static final DateTimeFormatter GENERATED_AT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    // Fixed fields: label, booking key, default value, prefix (ids come from the arguments, not the map)
+    private static final String[][] FIELDS = {
+            {"Booking ID:", null, null, ""},
+            {"User ID:", null, null, ""},
+            {"Event ID:", null, null, ""},
+            {"Quantity:", "quantity", "N/A", ""},
+            {"Amount:", "amount", "N/A", "Rs "},
+            {"Payment ID:", "paymentId", "N/A", ""},
+            {"Status:", "status", "N/A", ""},
+            {"Ticket Type:", "ticketType", "Standard", ""},
+    };
+
+    private static final float MARGIN_X = 25;
+    private static final float VALUE_X = MARGIN_X + 80;
+    private static final float FIRST_ROW = 70;
+    private static final float ROW = 15;
+
+    private final float width;
+    private final float height;
+    private final byte[] staticContent;
+    private final COSBase staticFilter;
+    private final Map<COSName, COSBase> fonts;
+
+    private TicketPdfTemplate(float width, float height, byte[] staticContent, COSBase staticFilter,
+                              Map<COSName, COSBase> fonts) {
+        this.width = width;
+        this.height = height;
+        this.staticContent = staticContent;
+        this.staticFilter = staticFilter;
+        this.fonts = fonts;
+    }
+
+    // ✅ Default look, used when no template row exists
+    public static TicketPdfTemplate defaults() throws IOException {
+        return compile(null);
+    }
+
+    // ✅ Draw the static part of the page once; throws on colours or text PDF fonts can't show
+    public static TicketPdfTemplate compile(TicketTemplate branding) throws IOException {
+        String title = DEFAULT_TITLE, footer = DEFAULT_FOOTER, brand = DEFAULT_BRAND;
+        Color header = DEFAULT_HEADER, background = DEFAULT_BACKGROUND, accent = DEFAULT_HEADER;
+        if (branding != null) {
+            if (branding.getTitle() != null) title = branding.getTitle();
+            if (branding.getFooterText() != null) footer = branding.getFooterText();
+            if (branding.getBrandText() != null) brand = branding.getBrandText();
+            if (branding.getHeaderColor() != null) header = Color.decode(branding.getHeaderColor());
+            if (branding.getBackgroundColor() != null) background = Color.decode(branding.getBackgroundColor());
+            accent = branding.getAccentColor() != null ? Color.decode(branding.getAccentColor()) : header;
+        }
+
+        try (PDDocument scratch = new PDDocument()) {
+            PDPage page = new PDPage(PDRectangle.A6);
+            scratch.addPage(page);
+            float width = page.getMediaBox().getWidth();
+            float height = page.getMediaBox().getHeight();
+
+            try (PDPageContentStream content = new PDPageContentStream(scratch, page)) {
+                // Leaves the graphics state as it found it, for the per-ticket stream that follows
+                content.saveGraphicsState();
+
+                // === Background ===
+                content.setNonStrokingColor(background);
+                content.addRect(0, 0, width, height);
+                content.fill();
+
+                // === Header Bar ===
+                content.setNonStrokingColor(header);
+                content.addRect(0, height - 45, width, 45);
+                content.fill();
+
+                // === Header Text ===
+                content.beginText();
+                content.setNonStrokingColor(Color.WHITE);
+                content.setFont(PDType1Font.HELVETICA_BOLD, 18);
+                content.newLineAtOffset(25, height - 30);
+                content.showText(title);
+                content.endText();
+
+                // === Field labels ===
+                content.setNonStrokingColor(Color.BLACK);
+                float y = height - FIRST_ROW;
+                for (String[] field : FIELDS) {
+                    drawText(content, PDType1Font.HELVETICA_BOLD, 10, MARGIN_X, y, field[0]);
+                    y -= ROW;
+                }
+
+                // === Footer ===
+                content.setNonStrokingColor(Color.DARK_GRAY);
+                drawText(content, PDType1Font.HELVETICA_OBLIQUE, 9, 45, 55, footer);
+                content.setNonStrokingColor(accent);
+                drawText(content, PDType1Font.HELVETICA_OBLIQUE, 8, 90, 30, brand);
+
+                content.restoreGraphicsState();
+            }
+
+            COSStream stream = (COSStream) page.getCOSObject().getDictionaryObject(COSName.CONTENTS);
+            byte[] raw;
+            try (InputStream in = stream.createRawInputStream()) {
+                raw = in.readAllBytes();
+            }
+            Map<COSName, COSBase> fonts = new LinkedHashMap<>();
+            COSDictionary fontDict = (COSDictionary) page.getResources().getCOSObject().getDictionaryObject(COSName.FONT);
+            for (COSName name : fontDict.keySet()) {
+                fonts.put(name, fontDict.getItem(name));
+            }
+            return new TicketPdfTemplate(width, height, raw, stream.getItem(COSName.FILTER), fonts);
+        }
+    }
+
+    // ✅ QR matrix for a mode: one cell per module (quiet zone included) for VECTOR, image pixels for IMAGE
+    public static BitMatrix encodeQr(String text, QrMode mode) throws WriterException {
+        int size = mode == QrMode.IMAGE ? QR_IMAGE_PIXELS : 0;
+        return new QRCodeWriter().encode(text, BarcodeFormat.QR_CODE, size, size);
+    }
+
+    // ✅ Write one ticket: the precompiled page plus this booking's values and QR code
+    public void render(UUID bookingId, UUID userId, UUID eventId, String seatIds, Map<String, Object> booking,
+                       BitMatrix qr, QrMode qrMode, LocalDateTime generatedAt, OutputStream out) throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDPage page = new PDPage(new PDRectangle(width, height));
+            doc.addPage(page);
+
+            // Same font objects as the static stream, under the same names
+            COSDictionary fontDict = new COSDictionary();
+            fonts.forEach(fontDict::setItem);
+            PDResources resources = new PDResources();
+            resources.getCOSObject().setItem(COSName.FONT, fontDict);
+            page.setResources(resources);
+
+            COSStream stream = doc.getDocument().createCOSStream();
+            if (staticFilter != null) stream.setItem(COSName.FILTER, staticFilter);
+            try (OutputStream raw = stream.createRawOutputStream()) {
+                raw.write(staticContent);
+            }
+            page.setContents(new PDStream(stream));
+
+            var pdImage = qrMode == QrMode.IMAGE
+                    ? LosslessFactory.createFromImage(doc, MatrixToImageWriter.toBufferedImage(qr))
+                    : null;
+
+            try (PDPageContentStream content = new PDPageContentStream(doc, page, PDPageContentStream.AppendMode.APPEND, true)) {
+
+                // === Booking Info ===
+                content.setNonStrokingColor(Color.BLACK);
+                float y = height - FIRST_ROW;
+                String[] ids = {bookingId.toString(), userId.toString(), eventId.toString()};
+                for (int i = 0; i < FIELDS.length; i++) {
+                    String value = i < ids.length ? ids[i]
+                            : FIELDS[i][3] + (booking == null ? FIELDS[i][2] : booking.getOrDefault(FIELDS[i][1], FIELDS[i][2]));
+                    drawText(content, PDType1Font.HELVETICA, 10, VALUE_X, y, value);
+                    y -= ROW;
+                }
+                if (seatIds != null && !seatIds.isBlank()) {
+                    drawText(content, PDType1Font.HELVETICA_BOLD, 10, MARGIN_X, y, "Seats:");
+                    drawText(content, PDType1Font.HELVETICA, 10, VALUE_X, y, seatIds.replace(",", ", "));
+                    y -= ROW;
+                }
+                y -= 5;
+
+                // Divider line
+                content.setStrokingColor(Color.LIGHT_GRAY);
+                content.moveTo(20, y);
+                content.lineTo(width - 20, y);
+                content.stroke();
+
+                // === QR Code Center ===
+                float imgW = 160f, imgH = 160f;
+                float startX = (width - imgW) / 2f;
+                float startY = y - imgH - 15;
+                if (pdImage != null) content.drawImage(pdImage, startX, startY, imgW, imgH);
+                else drawQr(content, qr, startX, startY, imgW);
+
+                content.setNonStrokingColor(Color.DARK_GRAY);
+                drawText(content, PDType1Font.HELVETICA_OBLIQUE, 8, 75, 42, "Generated: " + generatedAt.format(GENERATED_AT));
+            }
+
+            // Trailer ID from the ticket instead of the clock, so a ticket rendered again is the same file
+            doc.setDocumentId(bookingId.getLeastSignificantBits() ^ generatedAt.toEpochSecond(ZoneOffset.UTC));
+            doc.save(out);
+        }
+    }
+
+    // Dark modules as filled rectangles: each horizontal run is grown downwards over the rows that
+    // repeat it, so a code needs a few hundred rectangles and one fill
+    private static void drawQr(PDPageContentStream content, BitMatrix qr, float x, float y, float size) throws IOException {
+        int n = qr.getWidth();
+        float module = size / n;
+
+        content.setNonStrokingColor(Color.WHITE);
+        content.addRect(x, y, size, size);
+        content.fill();
+
+        content.setNonStrokingColor(Color.BLACK);
+        boolean[] drawn = new boolean[n * n];
+        for (int row = 0; row < n; row++) {
+            int col = 0;
+            while (col < n) {
+                if (!qr.get(col, row) || drawn[row * n + col]) {
+                    col++;
+                    continue;
+                }
+                int start = col;
+                while (col < n && qr.get(col, row) && !drawn[row * n + col]) col++;
+                int rows = 1;
+                while (row + rows < n && isRun(qr, drawn, row + rows, start, col)) {
+                    for (int c = start; c < col; c++) drawn[(row + rows) * n + c] = true;
+                    rows++;
+                }
+                content.addRect(x + start * module, y + size - (row + rows) * module, (col - start) * module, rows * module);
+            }
+        }
+        content.fill();
+    }
+
+    private static boolean isRun(BitMatrix qr, boolean[] drawn, int row, int from, int to) {
+        int n = qr.getWidth();
+        for (int c = from; c < to; c++) {
+            if (!qr.get(c, row) || drawn[row * n + c]) return false;
+        }
+        return true;
+    }
+
+    private static void drawText(PDPageContentStream content, PDType1Font font, float size, float x, float y, String text) throws IOException {
+        content.beginText();
+        content.setFont(font, size);
+        content.newLineAtOffset(x, y);
+        content.showText(text);
+        content.endText();
+    }
+}
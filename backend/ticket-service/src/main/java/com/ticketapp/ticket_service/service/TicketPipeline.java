@@ -0,0 +1,258 @@
+package com.ticketapp.ticket_service.service;
+
+import com.ticketapp.ticket_service.entity.TicketJob;
+import com.ticketapp.ticket_service.entity.TicketJobStatus;
+import com.ticketapp.ticket_service.entity.TicketRecord;
+import com.ticketapp.ticket_service.repository.TicketJobRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates tickets in the background.
+ *
+ * A request is recorded as a QUEUED job (one per booking) and handed to a fixed pool of platform
+ * threads, one per core by default, since rendering is CPU bound. The pool's queue is bounded:
+ * when it is full the request is refused and the caller (the booking outbox) sends it again later.
+ * Only confirmed bookings get a job, so requests for made-up or unpaid bookings leave nothing
+ * behind: the request carries a booking snapshot signed by booking-service, which is checked and
+ * kept with the job (older requests without one are checked with booking-service instead). A failed job is retried with exponential backoff and
+ * marked DEAD after {@code max-attempts}, or at once if the booking is gone or no longer confirmed.
+ * Tickets whose PDF is rendered on download (lazy mode) come back here when that render fails.
+ * The job rows are the source of truth: a sweep resubmits due retries, jobs refused by a full
+ * queue and jobs left RUNNING by an instance that died.
+ */
+@Service
+public class TicketPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(TicketPipeline.class);
+
+    private final TicketService ticketService;
+    private final TicketJobRepository jobRepository;
+    private final TicketDownloads ticketDownloads;
+    private final BookingSnapshots bookingSnapshots;
+    private final ThreadPoolExecutor workers;
+
+    // Jobs queued or running on this instance, so the sweep doesn't submit them twice
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    @Value("${ticket.pipeline.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${ticket.pipeline.max-backoff-seconds:600}")
+    private long maxBackoffSeconds;
+
+    @Value("${ticket.pipeline.stale-running-seconds:300}")
+    private long staleRunningSeconds;
+
+    @Value("${ticket.pipeline.sweep-batch:100}")
+    private int sweepBatch;
+
+    public TicketPipeline(TicketService ticketService,
+                          TicketJobRepository jobRepository,
+                          TicketDownloads ticketDownloads,
+                          BookingSnapshots bookingSnapshots,
+                          @Value("${ticket.pipeline.workers:0}") int workers,
+                          @Value("${ticket.pipeline.queue-capacity:500}") int queueCapacity) {
+        this.ticketService = ticketService;
+        this.jobRepository = jobRepository;
+        this.ticketDownloads = ticketDownloads;
+        this.bookingSnapshots = bookingSnapshots;
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger n = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> new Thread(r, "ticket-worker-" + n.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Unfinished jobs stay QUEUED/RUNNING and are picked up again on the next start
+        workers.shutdownNow();
+    }
+
+    // ✅ Record the job and queue it; returns at once. Throws RejectedExecutionException when the
+    // queue is full and IllegalArgumentException when the booking isn't confirmed or the snapshot
+    // doesn't check out (nothing is recorded then)
+    public TicketJob submit(UUID bookingId, Map<String, Object> body) {
+        Optional<TicketJob> existing = jobRepository.findById(bookingId);
+        if (existing.isPresent()) {
+            // Redelivered request: report where the job is, DEAD jobs wait for a manual retry
+            TicketJob job = existing.get();
+            if (job.getStatus() == TicketJobStatus.QUEUED && !inFlight.contains(bookingId)) {
+                enqueueQuietly(bookingId);
+            }
+            return job;
+        }
+        if (ticketService.findByBookingId(bookingId).isPresent()) {
+            // Ticket written before jobs were recorded
+            TicketJob done = newJob(bookingId);
+            done.setStatus(TicketJobStatus.DONE);
+            return jobRepository.save(done);
+        }
+        if (workers.getQueue().remainingCapacity() == 0) {
+            throw new RejectedExecutionException("Ticket queue is full");
+        }
+        Map<String, Object> snapshot = bookingSnapshots.verify(bookingId, body);
+        if (snapshot == null) ticketService.confirmedBooking(bookingId);
+
+        TicketJob job = newJob(bookingId);
+        if (snapshot != null) job.setSnapshot(bookingSnapshots.write(snapshot));
+        job = jobRepository.save(job);
+        // Lost the race for the last slot: the job is recorded, the sweep runs it
+        enqueueQuietly(bookingId);
+        return job;
+    }
+
+    public Optional<TicketJob> status(UUID bookingId) {
+        return jobRepository.findById(bookingId);
+    }
+
+    public List<TicketJob> deadJobs(int limit) {
+        return jobRepository.findByStatusOrderByUpdatedAtDesc(TicketJobStatus.DEAD,
+                PageRequest.of(0, Math.max(1, Math.min(limit, 100))));
+    }
+
+    // ✅ Admin: give a DEAD job a fresh set of attempts
+    public TicketJob retry(UUID bookingId) {
+        TicketJob job = jobRepository.findById(bookingId)
+                .orElseThrow(() -> new RuntimeException("No ticket job for booking ID: " + bookingId));
+        if (job.getStatus() != TicketJobStatus.DEAD) {
+            throw new RuntimeException("Ticket job is " + job.getStatus() + ", only DEAD jobs can be retried");
+        }
+        job.setStatus(TicketJobStatus.QUEUED);
+        job.setAttempts(0);
+        job.setNextAttemptAt(LocalDateTime.now());
+        jobRepository.save(job);
+        enqueueQuietly(bookingId);
+        return job;
+    }
+
+    // ✅ A download couldn't render the ticket: the job is retried by the workers, which render the
+    // PDF as well, and ends up DEAD if that keeps failing. Jobs already pending or DEAD are left alone
+    public void renderFailed(UUID bookingId, Exception error) {
+        try {
+            Optional<TicketJob> existing = jobRepository.findById(bookingId);
+            if (existing.isPresent() && existing.get().getStatus() != TicketJobStatus.DONE) return;
+            TicketJob job = existing.orElseGet(() -> newJob(bookingId));
+            job.setRenderPdf(true);
+            fail(job, error);
+            jobRepository.save(job);
+        } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+            // Another download reported it first
+        } catch (Exception e) {
+            log.error("Render failure of ticket {} not recorded", bookingId, e);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new HashMap<>();
+        m.put("workers", workers.getMaximumPoolSize());
+        m.put("active", workers.getActiveCount());
+        m.put("queued", workers.getQueue().size());
+        m.put("queueCapacity", workers.getQueue().size() + workers.getQueue().remainingCapacity());
+        return m;
+    }
+
+    // Jobs left over by the previous run of this instance (or of one that is gone)
+    @EventListener(ApplicationReadyEvent.class)
+    public void resume() {
+        sweep();
+    }
+
+    // ✅ Resubmit due retries, refused jobs and stale RUNNING jobs, while there is room in the queue
+    @Scheduled(fixedDelayString = "${ticket.pipeline.sweep-interval-ms:5000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> due = jobRepository.findDue(now, now.minusSeconds(staleRunningSeconds), PageRequest.of(0, sweepBatch));
+        for (UUID bookingId : due) {
+            if (workers.getQueue().remainingCapacity() == 0) break;
+            if (!inFlight.contains(bookingId)) enqueueQuietly(bookingId);
+        }
+    }
+
+    private void enqueueQuietly(UUID bookingId) {
+        if (!inFlight.add(bookingId)) return;
+        try {
+            workers.execute(() -> run(bookingId));
+        } catch (RejectedExecutionException ex) {
+            inFlight.remove(bookingId);
+        }
+    }
+
+    private void run(UUID bookingId) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            if (jobRepository.claim(bookingId, now, now.minusSeconds(staleRunningSeconds)) == 0) return;
+            TicketJob job = jobRepository.findById(bookingId).orElseThrow();
+            try {
+                Map<String, Object> snapshot = job.getSnapshot() == null ? null : bookingSnapshots.read(job.getSnapshot());
+                TicketRecord rec = ticketService.generateTicket(bookingId, snapshot);
+                if (job.isRenderPdf()) ticketDownloads.warm(rec);
+                job.setStatus(TicketJobStatus.DONE);
+                job.setRenderPdf(false);
+                job.setLastError(null);
+            } catch (Exception e) {
+                fail(job, e);
+            }
+            jobRepository.save(job);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Claimed again while this worker was slow: the newer claim's result counts
+            log.warn("Ticket job {} was claimed by another worker, result of this run dropped", bookingId);
+        } catch (Exception e) {
+            // Bookkeeping failed (database down): the job stays as it was and the sweep retries it
+            log.error("Ticket job {} not recorded", bookingId, e);
+        } finally {
+            inFlight.remove(bookingId);
+        }
+    }
+
+    private void fail(TicketJob job, Exception e) {
+        int attempts = job.getAttempts() + 1;
+        String error = String.valueOf(e.getMessage());
+        job.setAttempts(attempts);
+        job.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+        // No such booking, or not confirmed: retrying won't help
+        if (attempts >= maxAttempts || e instanceof IllegalArgumentException) {
+            job.setStatus(TicketJobStatus.DEAD);
+            log.error("Ticket generation for booking {} failed {} times, giving up", job.getBookingId(), attempts, e);
+        } else {
+            long backoff = Math.min(maxBackoffSeconds, 1L << Math.min(attempts, 20));
+            job.setStatus(TicketJobStatus.RETRY);
+            job.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+            log.warn("Ticket generation for booking {} failed (attempt {}), retrying in {}s: {}",
+                    job.getBookingId(), attempts, backoff, error);
+        }
+    }
+
+    private static TicketJob newJob(UUID bookingId) {
+        TicketJob job = new TicketJob();
+        job.setBookingId(bookingId);
+        job.setStatus(TicketJobStatus.QUEUED);
+        return job;
+    }
+}
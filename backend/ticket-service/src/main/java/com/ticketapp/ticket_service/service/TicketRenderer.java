@@ -0,0 +1,96 @@
+package com.ticketapp.ticket_service.service;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.ticketapp.ticket_service.client.BookingClient;
+import com.ticketapp.ticket_service.entity.TicketRecord;
+import com.ticketapp.ticket_service.exception.BookingUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+// Turns a ticket record into its PDF. Everything on the page comes from the record, booking values
+// included, and from the event's template, so rendering a ticket again gives the same bytes until
+// the template changes.
+@Service
+public class TicketRenderer {
+
+    private final TicketTemplateService templateService;
+    private final BookingClient bookingClient;
+    private final TicketPdfTemplate.QrMode qrMode;
+
+    @Value("${ticket.files.path:/tmp/tickets}")
+    private String ticketsPath;
+
+    public TicketRenderer(TicketTemplateService templateService, BookingClient bookingClient,
+                          @Value("${ticket.qr.render-mode:vector}") String qrMode) {
+        this.templateService = templateService;
+        this.bookingClient = bookingClient;
+        this.qrMode = TicketPdfTemplate.QrMode.valueOf(qrMode.trim().toUpperCase(Locale.ROOT));
+    }
+
+    // ✅ QR payload, fixed when the ticket is issued and stored with the record
+    public static String qrText(UUID bookingId, UUID userId, UUID eventId, LocalDateTime issuedAt, String seatIds) {
+        String qrText = String.format("TICKET|%s|%s|%s|%s", bookingId, userId, eventId, issuedAt);
+        if (seatIds != null && !seatIds.isBlank()) qrText += "|" + seatIds;
+        return qrText;
+    }
+
+    public byte[] render(TicketRecord rec) throws IOException, WriterException {
+        BitMatrix qr = TicketPdfTemplate.encodeQr(rec.getQrText(), qrMode);
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream(16 * 1024);
+        templateService.forEvent(rec.getEventId()).render(rec.getBookingId(), rec.getUserId(), rec.getEventId(),
+                rec.getSeatIds(), printedValues(rec), qr, qrMode, rec.getCreatedAt(), pdf);
+        return pdf.toByteArray();
+    }
+
+    // ✅ Copy the booking values the ticket shows (quantity, amount, payment ID, status) into the record
+    public static void copyBookingValues(TicketRecord rec, Map<String, Object> booking) {
+        // Numbers from booking-service, strings from a booking snapshot
+        if (booking.get("quantity") != null) rec.setQuantity(Integer.valueOf(booking.get("quantity").toString()));
+        if (booking.get("amount") != null) rec.setAmount(Double.valueOf(booking.get("amount").toString()));
+        if (booking.get("paymentId") != null) rec.setPaymentId(booking.get("paymentId").toString());
+        rec.setBookingStatus(String.valueOf(booking.get("status")));
+    }
+
+    // Booking of a ticket issued before its booking values were stored; throws when booking-service
+    // can't be reached, rather than rendering N/A
+    public Map<String, Object> bookingDetails(UUID bookingId) {
+        try {
+            Map<String, Object> booking = bookingClient.getBooking(bookingId);
+            if (booking == null || booking.isEmpty()) throw new IllegalStateException("empty response");
+            return booking;
+        } catch (Exception e) {
+            throw new BookingUnavailableException("Booking " + bookingId + " not available for ticket details: "
+                    + e.getMessage(), e);
+        }
+    }
+
+    // Keys as in TicketPdfTemplate.FIELDS; missing values print as N/A
+    private static Map<String, Object> printedValues(TicketRecord rec) {
+        Map<String, Object> values = new HashMap<>();
+        if (rec.getQuantity() != null) values.put("quantity", rec.getQuantity());
+        if (rec.getAmount() != null) values.put("amount", rec.getAmount());
+        if (rec.getPaymentId() != null) values.put("paymentId", rec.getPaymentId());
+        if (rec.getBookingStatus() != null) values.put("status", rec.getBookingStatus());
+        return values;
+    }
+
+    // ✅ Write the PDF under ticket.files.path; returns the absolute path
+    public Path store(UUID bookingId, byte[] pdf) throws IOException {
+        Path dir = Path.of(ticketsPath);
+        if (!Files.exists(dir)) Files.createDirectories(dir);
+        Path out = dir.resolve("ticket_" + bookingId + ".pdf").toAbsolutePath();
+        Files.write(out, pdf);
+        return out;
+    }
+}
@@ -0,0 +1,101 @@
+package com.ticketapp.ticket_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ticketapp.ticket_service.entity.TicketTemplate;
+import com.ticketapp.ticket_service.repository.TicketTemplateRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Looks up the ticket template of an event and keeps it compiled.
+ *
+ * Compiled templates are cached by template id and version, so all events on the default template
+ * share one copy. Which template an event uses is cached for {@code ticket.templates.refresh-seconds};
+ * changes made through this service apply at once here, other instances pick them up within that time.
+ */
+@Service
+public class TicketTemplateService {
+
+    // Caffeine keys can't be null: stands for "no event", i.e. the default template
+    private static final UUID DEFAULT_KEY = new UUID(0, 0);
+
+    private final TicketTemplateRepository templateRepository;
+    private final Cache<String, TicketPdfTemplate> compiled;
+    private final Cache<UUID, TicketPdfTemplate> byEvent;
+
+    public TicketTemplateService(TicketTemplateRepository templateRepository,
+                                 @Value("${ticket.templates.max-compiled:200}") long maxCompiled,
+                                 @Value("${ticket.templates.refresh-seconds:60}") long refreshSeconds) {
+        this.templateRepository = templateRepository;
+        this.compiled = Caffeine.newBuilder().maximumSize(maxCompiled).build();
+        this.byEvent = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofSeconds(refreshSeconds))
+                .build();
+    }
+
+    // ✅ Compiled template for an event: its own branding, else the default row, else the built-in look
+    public TicketPdfTemplate forEvent(UUID eventId) {
+        return byEvent.get(eventId != null ? eventId : DEFAULT_KEY, id -> {
+            Optional<TicketTemplate> row = DEFAULT_KEY.equals(id) ? Optional.empty() : templateRepository.findByEventId(id);
+            if (row.isEmpty()) row = templateRepository.findByEventIdIsNull();
+            return compiled(row.orElse(null));
+        });
+    }
+
+    public Optional<TicketTemplate> find(UUID eventId) {
+        return eventId == null ? templateRepository.findByEventIdIsNull() : templateRepository.findByEventId(eventId);
+    }
+
+    // ✅ Admin: create or change the template of an event (null = the default template)
+    public TicketTemplate save(UUID eventId, TicketTemplate changes) {
+        TicketTemplate template = find(eventId).orElseGet(TicketTemplate::new);
+        template.setEventId(eventId);
+        template.setTitle(changes.getTitle());
+        template.setHeaderColor(changes.getHeaderColor());
+        template.setBackgroundColor(changes.getBackgroundColor());
+        template.setAccentColor(changes.getAccentColor());
+        template.setFooterText(changes.getFooterText());
+        template.setBrandText(changes.getBrandText());
+
+        // Refuse what can't be drawn before it is stored
+        try {
+            TicketPdfTemplate.compile(template);
+        } catch (IOException | IllegalArgumentException ex) {
+            throw new RuntimeException("Invalid ticket template: " + ex.getMessage());
+        }
+
+        TicketTemplate saved = templateRepository.save(template);
+        evict(eventId);
+        return saved;
+    }
+
+    public void delete(UUID eventId) {
+        find(eventId).ifPresent(templateRepository::delete);
+        evict(eventId);
+    }
+
+    private void evict(UUID eventId) {
+        // Every event without its own row follows the default one
+        if (eventId == null) byEvent.invalidateAll();
+        else byEvent.invalidate(eventId);
+    }
+
+    private TicketPdfTemplate compiled(TicketTemplate template) {
+        String key = template == null ? "default" : template.getId() + ":" + template.getVersion();
+        return compiled.get(key, k -> {
+            try {
+                return TicketPdfTemplate.compile(template);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+}
@@ -0,0 +1,102 @@
+package com.ticketapp.ticket_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Ticket requests are issued from the snapshot only when booking-service's signature checks out.
+ */
+class BookingSnapshotsTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private final UUID bookingId = UUID.randomUUID();
+    private final BookingSnapshots snapshots = new BookingSnapshots(SECRET, new ObjectMapper());
+
+    @Test
+    void signedSnapshotIsAccepted() {
+        Map<String, Object> checked = snapshots.verify(bookingId, signed(body("CONFIRMED")));
+
+        assertEquals(bookingId.toString(), checked.get("bookingId"));
+        assertEquals("2", checked.get("quantity"));
+        assertEquals("50.0", checked.get("amount"));
+        assertEquals(checked, snapshots.read(snapshots.write(checked)));
+    }
+
+    @Test
+    void alteredSnapshotIsRefused() {
+        Map<String, Object> body = signed(body("CONFIRMED"));
+        body.put("amount", "0.0");
+
+        assertThrows(IllegalArgumentException.class, () -> snapshots.verify(bookingId, body));
+    }
+
+    @Test
+    void snapshotOfAnotherBookingIsRefused() {
+        Map<String, Object> body = signed(body("CONFIRMED"));
+
+        assertThrows(IllegalArgumentException.class, () -> snapshots.verify(UUID.randomUUID(), body));
+    }
+
+    @Test
+    void unconfirmedBookingIsRefused() {
+        assertThrows(IllegalArgumentException.class, () -> snapshots.verify(bookingId, signed(body("HOLD"))));
+    }
+
+    @Test
+    void bodyWithoutSnapshotIsLeftToBookingService() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("bookingId", bookingId.toString());
+
+        assertNull(snapshots.verify(bookingId, body));
+    }
+
+    @Test
+    void shortSecretIsRefused() {
+        assertThrows(IllegalStateException.class, () -> new BookingSnapshots("secret", new ObjectMapper()));
+    }
+
+    private Map<String, Object> body(String status) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("bookingId", bookingId.toString());
+        body.put("userId", UUID.randomUUID().toString());
+        body.put("eventId", UUID.randomUUID().toString());
+        body.put("ticketType", "VIP");
+        body.put("quantity", "2");
+        body.put("seatIds", null);
+        body.put("amount", "50.0");
+        body.put("paymentId", "pay_1");
+        body.put("status", status);
+        return body;
+    }
+
+    // Same canonical form as booking-service's BookingSnapshots
+    private static Map<String, Object> signed(Map<String, Object> body) {
+        StringBuilder canonical = new StringBuilder();
+        for (String field : BookingSnapshots.FIELDS) {
+            canonical.append(Objects.toString(body.get(field), "")).append('\n');
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] signature = mac.doFinal(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            body.put("signature", Base64.getUrlEncoder().withoutPadding().encodeToString(signature));
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+        return body;
+    }
+}
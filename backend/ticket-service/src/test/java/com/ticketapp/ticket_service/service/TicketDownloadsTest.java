@@ -0,0 +1,111 @@
+package com.ticketapp.ticket_service.service;
+
+import com.ticketapp.ticket_service.entity.TicketRecord;
+import com.ticketapp.ticket_service.exception.BookingUnavailableException;
+import com.ticketapp.ticket_service.exception.TicketRenderException;
+import com.ticketapp.ticket_service.repository.TicketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Lazy rendering on download: nothing is cached or written unless the ticket rendered with all of
+ * its values.
+ */
+class TicketDownloadsTest {
+
+    private static final byte[] PDF = {'%', 'P', 'D', 'F'};
+
+    private final UUID bookingId = UUID.randomUUID();
+    private final TicketRepository repo = mock(TicketRepository.class);
+    private final TicketRenderer renderer = mock(TicketRenderer.class);
+    private TicketDownloads downloads;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(repo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(renderer.store(any(), any())).thenReturn(Path.of("/tmp/tickets/ticket_" + bookingId + ".pdf"));
+        downloads = new TicketDownloads(repo, renderer, 1 << 20, 1 << 18, 60);
+        ReflectionTestUtils.setField(downloads, "persistRendered", true);
+    }
+
+    @Test
+    void oldTicketIsNotRenderedWhileBookingServiceIsDown() throws Exception {
+        TicketRecord rec = record(false);
+        when(repo.findByBookingId(bookingId)).thenReturn(Optional.of(rec));
+        when(renderer.bookingDetails(bookingId)).thenThrow(new BookingUnavailableException("down", null));
+
+        assertThrows(BookingUnavailableException.class, () -> downloads.find(bookingId));
+        verify(renderer, never()).render(any());
+        verify(renderer, never()).store(any(), any());
+        verify(repo, never()).save(any());
+
+        // Back up: the values are fetched once, kept with the ticket and printed
+        doReturn(Map.of("quantity", 2, "amount", 500.0, "paymentId", "COUPON-DEVTEST", "status", "CONFIRMED"))
+                .when(renderer).bookingDetails(bookingId);
+        when(renderer.render(rec)).thenReturn(PDF);
+        assertArrayEquals(PDF, downloads.find(bookingId).orElseThrow().data());
+        assertEquals(2, rec.getQuantity());
+        assertEquals("CONFIRMED", rec.getBookingStatus());
+    }
+
+    @Test
+    void renderFailureIsNotCached() throws Exception {
+        TicketRecord rec = record(true);
+        when(repo.findByBookingId(bookingId)).thenReturn(Optional.of(rec));
+        when(renderer.render(rec)).thenThrow(new IOException("broken template")).thenReturn(PDF);
+
+        assertThrows(TicketRenderException.class, () -> downloads.find(bookingId));
+        assertNull(rec.getTicketPdfPath());
+
+        assertArrayEquals(PDF, downloads.find(bookingId).orElseThrow().data());
+        verify(renderer, times(2)).render(rec);
+    }
+
+    @Test
+    void ticketWithStoredValuesRendersWithoutBookingService() throws Exception {
+        TicketRecord rec = record(true);
+        when(repo.findByBookingId(bookingId)).thenReturn(Optional.of(rec));
+        when(renderer.render(rec)).thenReturn(PDF);
+
+        String etag = downloads.find(bookingId).orElseThrow().etag();
+        assertEquals(etag, downloads.find(bookingId).orElseThrow().etag());
+        verify(renderer, never()).bookingDetails(any());
+        verify(renderer, times(1)).render(rec);
+        verify(renderer).store(bookingId, PDF);
+    }
+
+    private TicketRecord record(boolean withBookingValues) {
+        TicketRecord rec = new TicketRecord();
+        rec.setBookingId(bookingId);
+        rec.setUserId(UUID.randomUUID());
+        rec.setEventId(UUID.randomUUID());
+        rec.setCreatedAt(LocalDateTime.of(2026, 1, 1, 12, 0));
+        if (withBookingValues) {
+            rec.setQuantity(1);
+            rec.setAmount(250.0);
+            rec.setPaymentId("COUPON-FREE100");
+            rec.setBookingStatus("CONFIRMED");
+        }
+        return rec;
+    }
+}
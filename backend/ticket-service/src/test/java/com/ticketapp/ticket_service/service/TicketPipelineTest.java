@@ -0,0 +1,112 @@
+package com.ticketapp.ticket_service.service;
+
+import com.ticketapp.ticket_service.entity.TicketJob;
+import com.ticketapp.ticket_service.entity.TicketJobStatus;
+import com.ticketapp.ticket_service.entity.TicketRecord;
+import com.ticketapp.ticket_service.exception.TicketRenderException;
+import com.ticketapp.ticket_service.repository.TicketJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Render failures on download go through the same retries and dead letters as generation.
+ */
+class TicketPipelineTest {
+
+    private final UUID bookingId = UUID.randomUUID();
+    private final TicketService ticketService = mock(TicketService.class);
+    private final TicketJobRepository jobRepository = mock(TicketJobRepository.class);
+    private final TicketDownloads downloads = mock(TicketDownloads.class);
+    private final BookingSnapshots snapshots = mock(BookingSnapshots.class);
+    private TicketPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        when(jobRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        pipeline = new TicketPipeline(ticketService, jobRepository, downloads, snapshots, 1, 10);
+        ReflectionTestUtils.setField(pipeline, "maxAttempts", 3);
+        ReflectionTestUtils.setField(pipeline, "maxBackoffSeconds", 600L);
+        ReflectionTestUtils.setField(pipeline, "staleRunningSeconds", 300L);
+        ReflectionTestUtils.setField(pipeline, "sweepBatch", 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void renderFailureOfIssuedTicketIsRetried() {
+        TicketJob job = job(TicketJobStatus.DONE, 0);
+        when(jobRepository.findById(bookingId)).thenReturn(Optional.of(job));
+
+        pipeline.renderFailed(bookingId, new TicketRenderException("broken template", null));
+
+        assertEquals(TicketJobStatus.RETRY, job.getStatus());
+        assertEquals(1, job.getAttempts());
+        assertTrue(job.isRenderPdf());
+    }
+
+    @Test
+    void renderFailureEndsUpDead() {
+        TicketJob job = job(TicketJobStatus.DONE, 2);
+        when(jobRepository.findById(bookingId)).thenReturn(Optional.of(job));
+
+        pipeline.renderFailed(bookingId, new TicketRenderException("broken template", null));
+
+        assertEquals(TicketJobStatus.DEAD, job.getStatus());
+    }
+
+    @Test
+    void pendingJobIsNotCountedAgain() {
+        when(jobRepository.findById(bookingId)).thenReturn(Optional.of(job(TicketJobStatus.RETRY, 1)));
+
+        pipeline.renderFailed(bookingId, new TicketRenderException("broken template", null));
+
+        verify(jobRepository, never()).save(any());
+    }
+
+    @Test
+    void workerRendersTheTicketOnRetry() throws Exception {
+        TicketJob job = job(TicketJobStatus.RETRY, 1);
+        job.setRenderPdf(true);
+        TicketRecord rec = new TicketRecord();
+        when(jobRepository.findDue(any(), any(), any())).thenReturn(List.of(bookingId));
+        when(jobRepository.claim(eq(bookingId), any(), any())).thenReturn(1);
+        when(jobRepository.findById(bookingId)).thenReturn(Optional.of(job));
+        when(ticketService.generateTicket(bookingId, null)).thenReturn(rec);
+
+        pipeline.sweep();
+
+        verify(downloads, timeout(5000)).warm(rec);
+        verify(jobRepository, timeout(5000)).save(argThat(j -> j.getStatus() == TicketJobStatus.DONE));
+        assertFalse(job.isRenderPdf());
+    }
+
+    private TicketJob job(TicketJobStatus status, int attempts) {
+        TicketJob job = new TicketJob();
+        job.setBookingId(bookingId);
+        job.setStatus(status);
+        job.setAttempts(attempts);
+        job.setVersion(1L);
+        return job;
+    }
+}
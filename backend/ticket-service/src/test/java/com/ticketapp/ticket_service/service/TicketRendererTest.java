@@ -0,0 +1,50 @@
+package com.ticketapp.ticket_service.service;
+
+import com.ticketapp.ticket_service.client.BookingClient;
+import com.ticketapp.ticket_service.entity.TicketRecord;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class TicketRendererTest {
+
+    @Test
+    void ticketRendersFromItsRecordToTheSameBytes() throws Exception {
+        TicketTemplateService templates = mock(TicketTemplateService.class);
+        BookingClient bookingClient = mock(BookingClient.class);
+        TicketRenderer renderer = new TicketRenderer(templates, bookingClient, "vector");
+
+        TicketRecord rec = new TicketRecord();
+        rec.setBookingId(UUID.randomUUID());
+        rec.setUserId(UUID.randomUUID());
+        rec.setEventId(UUID.randomUUID());
+        rec.setCreatedAt(LocalDateTime.of(2026, 1, 1, 12, 0));
+        rec.setQrText(TicketRenderer.qrText(rec.getBookingId(), rec.getUserId(), rec.getEventId(), rec.getCreatedAt(), null));
+        rec.setQuantity(3);
+        rec.setAmount(750.0);
+        rec.setPaymentId("COUPON-FREE100");
+        rec.setBookingStatus("CONFIRMED");
+        when(templates.forEvent(rec.getEventId())).thenReturn(TicketPdfTemplate.compile(null));
+
+        byte[] first = renderer.render(rec);
+        Thread.sleep(5);
+        assertArrayEquals(first, renderer.render(rec));
+
+        try (PDDocument doc = PDDocument.load(first)) {
+            String text = new PDFTextStripper().getText(doc);
+            assertTrue(text.contains("Rs 750.0"), text);
+            assertTrue(text.contains("COUPON-FREE100"), text);
+            assertTrue(text.contains("CONFIRMED"), text);
+        }
+        verifyNoInteractions(bookingClient);
+    }
+}
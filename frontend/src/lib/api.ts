@@ -261,7 +261,8 @@ export const bookingApi = {
   }): Promise<Booking> => {
     const response = await fetch(`${BOOKING_SERVICE}/book`, {
       method: 'POST',
-      headers: getAuthHeaders(),
+      // X-Event-Id / X-User-Id let the gateway's waiting room check admission without reading the body
+      headers: { ...getAuthHeaders(), 'X-Event-Id': data.eventId, 'X-User-Id': data.userId },
       body: JSON.stringify(data),
     });
     return handleResponse<Booking>(response);
@@ -373,14 +374,32 @@ export const paymentApi = {
 // =======================================
 // TICKET SERVICE (Final Fixed Version)
 // =======================================
+type TicketJobStatus = { bookingId: string; status: string; attempts?: number; lastError?: string; ticketUrl?: string };
+
 export const ticketApi = {
-  generateTicket: async (bookingId: string, userId: string, eventId: string) => {
+  generateTicket: async (bookingId: string, userId: string, eventId: string): Promise<TicketJobStatus> => {
     const response = await fetch(`${API_CONFIG.TICKET_SERVICE}/tickets/generate`, {
       method: 'POST',
       headers: { ...getAuthHeaders(), 'Content-Type': 'application/json' },
       body: JSON.stringify({ bookingId, userId, eventId }),
     });
-    return handleResponse(response);
+    // Generation is queued (202): wait until the ticket is written or has failed for good
+    let job = await handleResponse<TicketJobStatus>(response);
+    for (let i = 0; i < 30 && job?.status !== 'DONE'; i++) {
+      if (job?.status === 'DEAD') throw new Error(job.lastError || 'Ticket generation failed');
+      await new Promise((resolve) => setTimeout(resolve, 1000));
+      job = await ticketApi.getTicketStatus(bookingId);
+    }
+    if (job?.status !== 'DONE') throw new Error('Ticket is still being generated, try again shortly');
+    return job;
+  },
+
+  getTicketStatus: async (bookingId: string): Promise<TicketJobStatus> => {
+    const response = await fetch(`${API_CONFIG.TICKET_SERVICE}/tickets/status/${bookingId}`, {
+      method: 'GET',
+      headers: getAuthHeaders(),
+    });
+    return handleResponse<TicketJobStatus>(response);
   },
 
   downloadTicket: async (bookingId: string): Promise<Blob> => {